@@ -0,0 +1,149 @@
+package com.chaotic_loom.warp.benchmark;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic Warp workspaces that run offline against a stub Maven mirror holding a fake Loom.
+ * Shared by {@link WarpBenchmark} and the plugin's functional tests.
+ */
+public class StubWorkspaces {
+    public static final String WARP_VERSION = "0.1.0";
+    public static final String MINECRAFT_VERSION = "1.20.1";
+    public static final String LOOM_RELEASE = "1.9.0";
+    private static final String GSON_VERSION = "2.10.1";
+
+    private final File pluginRepo;
+    private final File stubJar;
+    private final File workDir;
+
+    /**
+     * @param pluginRepo Maven repository the Warp plugin was published to
+     * @param stubJar jar with the stub Loom bootstrap
+     * @param workDir scratch directory for the mirror and the workspaces
+     */
+    public StubWorkspaces(File pluginRepo, File stubJar, File workDir) {
+        this.pluginRepo = pluginRepo;
+        this.stubJar = stubJar;
+        this.workDir = workDir;
+    }
+
+    /**
+     * Lays out the artifacts Warp resolves in the same shape as the offline mirror.
+     */
+    public File createStubMirror() throws IOException {
+        File mirror = new File(workDir, "mirror");
+        Path maven = mirror.toPath().resolve("maven");
+
+        Path loom = maven.resolve("net/fabricmc/fabric-loom/1.9-SNAPSHOT");
+        Files.createDirectories(loom);
+        Files.copy(stubJar.toPath(), loom.resolve("fabric-loom-1.9-SNAPSHOT.jar"), StandardCopyOption.REPLACE_EXISTING);
+        writePom(loom.resolve("fabric-loom-1.9-SNAPSHOT.pom"), "net.fabricmc", "fabric-loom", "1.9-SNAPSHOT");
+
+        Path loomRelease = maven.resolve("net/fabricmc/fabric-loom/" + LOOM_RELEASE);
+        Files.createDirectories(loomRelease);
+        Files.copy(stubJar.toPath(), loomRelease.resolve("fabric-loom-" + LOOM_RELEASE + ".jar"), StandardCopyOption.REPLACE_EXISTING);
+        writePom(loomRelease.resolve("fabric-loom-" + LOOM_RELEASE + ".pom"), "net.fabricmc", "fabric-loom", LOOM_RELEASE);
+
+        Path parchment = maven.resolve("org/parchmentmc/data/parchment-" + MINECRAFT_VERSION + "/2023.09.03");
+        Files.createDirectories(parchment);
+        writeEmptyZip(parchment.resolve("parchment-" + MINECRAFT_VERSION + "-2023.09.03.zip"));
+
+        Path loader = maven.resolve("net/fabricmc/fabric-loader/0.15.11");
+        Files.createDirectories(loader);
+        writeEmptyZip(loader.resolve("fabric-loader-0.15.11.jar"));
+        writePom(loader.resolve("fabric-loader-0.15.11.pom"), "net.fabricmc", "fabric-loader", "0.15.11");
+
+        Path jsr305 = maven.resolve("com/google/code/findbugs/jsr305/3.0.2");
+        Files.createDirectories(jsr305);
+        writeEmptyZip(jsr305.resolve("jsr305-3.0.2.jar"));
+        writePom(jsr305.resolve("jsr305-3.0.2.pom"), "com.google.code.findbugs", "jsr305", "3.0.2");
+
+        // Warp's own runtime dependency, so the plugin itself resolves offline too
+        Path gson = maven.resolve("com/google/code/gson/gson/" + GSON_VERSION);
+        Files.createDirectories(gson);
+        Files.copy(Path.of(toUri(Gson.class)), gson.resolve("gson-" + GSON_VERSION + ".jar"), StandardCopyOption.REPLACE_EXISTING);
+        writePom(gson.resolve("gson-" + GSON_VERSION + ".pom"), "com.google.code.gson", "gson", GSON_VERSION);
+
+        return mirror;
+    }
+
+    private static URI toUri(Class<?> type) {
+        try {
+            return type.getProtectionDomain().getCodeSource().getLocation().toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public File createWorkspace(String modId, File mirror, String extraWarpSettings) throws IOException {
+        File workspace = new File(workDir, "workspaces/" + modId);
+        deleteRecursively(workspace.toPath());
+        Files.createDirectories(workspace.toPath());
+
+        String settings = "pluginManagement {\n"
+                + "    repositories {\n"
+                + "        maven { url = uri('" + escape(pluginRepo) + "') }\n"
+                + "        maven { url = uri('" + escape(new File(mirror, "maven")) + "') }\n"
+                + "    }\n"
+                + "}\n\n"
+                + "plugins {\n"
+                + "    id 'com.chaotic_loom.warp' version '" + WARP_VERSION + "'\n"
+                + "}\n\n"
+                + "rootProject.name = '" + modId + "'\n\n"
+                + "warp {\n"
+                + "    minecraftVersion = \"" + MINECRAFT_VERSION + "\"\n"
+                + "    modId = \"" + modId + "\"\n"
+                + "    modGroup = \"com.example\"\n"
+                + "    offline = true\n"
+                + "    mirrorDirectory = \"" + escape(mirror) + "\"\n"
+                + extraWarpSettings
+                + "}\n";
+
+        Files.writeString(workspace.toPath().resolve("settings.gradle"), settings);
+        Files.writeString(workspace.toPath().resolve("gradle.properties"), "org.gradle.jvmargs=-Xmx1g\n");
+        return workspace;
+    }
+
+    private static String escape(File file) {
+        return file.getAbsolutePath().replace("\\", "/");
+    }
+
+    private static void writePom(Path path, String group, String artifact, String version) throws IOException {
+        Files.writeString(path, "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>" + group + "</groupId>\n"
+                + "  <artifactId>" + artifact + "</artifactId>\n"
+                + "  <version>" + version + "</version>\n"
+                + "</project>\n");
+    }
+
+    private static void writeEmptyZip(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path); ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (var walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
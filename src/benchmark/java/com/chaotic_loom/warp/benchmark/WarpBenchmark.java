@@ -0,0 +1,214 @@
+package com.chaotic_loom.warp.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.gradle.testkit.runner.GradleRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Measures Warp's configuration time on synthetic workspaces using Gradle TestKit.
+ * <p>
+ * Every workspace runs in offline mode against a stub Maven repository holding a fake Loom,
+ * so the numbers only reflect Warp and Gradle and no network is needed. Configured through
+ * system properties (see {@code warpBenchmark} in the build script):
+ * <ul>
+ *     <li>{@code warp.benchmark.pluginRepo} - Maven repository the Warp plugin was published to</li>
+ *     <li>{@code warp.benchmark.stubJar} - jar with the stub Loom bootstrap</li>
+ *     <li>{@code warp.benchmark.workDir} - scratch directory for workspaces and TestKit daemons</li>
+ *     <li>{@code warp.benchmark.output} - JSON results file</li>
+ *     <li>{@code warp.benchmark.mods} - number of mod workspaces (default 1)</li>
+ *     <li>{@code warp.benchmark.iterations} - warm and configuration-cache iterations (default 5)</li>
+ * </ul>
+ */
+public class WarpBenchmark {
+    private final StubWorkspaces workspaces;
+    private final File workDir;
+    private final int iterations;
+    private final List<Result> results = new ArrayList<>();
+
+    private WarpBenchmark(File pluginRepo, File stubJar, File workDir, int iterations) {
+        this.workspaces = new StubWorkspaces(pluginRepo, stubJar, workDir);
+        this.workDir = workDir;
+        this.iterations = iterations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        WarpBenchmark benchmark = new WarpBenchmark(
+                new File(require("warp.benchmark.pluginRepo")),
+                new File(require("warp.benchmark.stubJar")),
+                new File(require("warp.benchmark.workDir")),
+                Integer.getInteger("warp.benchmark.iterations", 5)
+        );
+
+        int mods = Integer.getInteger("warp.benchmark.mods", 1);
+        File mirror = benchmark.workspaces.createStubMirror();
+
+        for (int i = 0; i < mods; i++) {
+            File workspace = benchmark.workspaces.createWorkspace("mod" + i, mirror, "");
+            benchmark.run(workspace);
+        }
+
+        benchmark.runSingleLoader(mirror);
+        benchmark.runWarmDaemon(mirror);
+
+        benchmark.writeResults(new File(require("warp.benchmark.output")));
+    }
+
+    private static String require(String property) {
+        String value = System.getProperty(property);
+        if (value == null) throw new IllegalArgumentException("Missing system property " + property);
+        return value;
+    }
+
+    // --- SCENARIOS ---
+
+    private void run(File workspace) throws IOException {
+        String name = workspace.getName();
+
+        // Cold: a fresh TestKit directory means a new daemon and empty Gradle caches. The work
+        // directory outlives the run, so the one a previous run left behind is deleted first
+        File coldKit = new File(workDir, "testkit-cold-" + name);
+        StubWorkspaces.deleteRecursively(coldKit.toPath());
+        record(name, "cold", 0, time(runner(workspace, coldKit), "help"));
+
+        // Warm: one daemon reused across runs
+        File warmKit = new File(workDir, "testkit-warm");
+        GradleRunner warm = runner(workspace, warmKit);
+        time(warm, "help");
+        for (int i = 0; i < iterations; i++) {
+            record(name, "warm", i, time(warm, "help"));
+        }
+
+        // Configuration cache: the first run stores the entry, the following ones reuse it
+        time(warm, "help", "--configuration-cache");
+        for (int i = 0; i < iterations; i++) {
+            record(name, "configuration-cache", i, time(warm, "help", "--configuration-cache"));
+        }
+    }
+
+    /**
+     * A single loader task in a workspace with three loaders, with and without lazy loader setup.
+     */
+    private void runSingleLoader(File mirror) throws IOException {
+        File warmKit = new File(workDir, "testkit-warm");
+        GradleRunner eager = runner(workspaces.createWorkspace("eager", mirror, ""), warmKit);
+        GradleRunner lazy = runner(workspaces.createWorkspace("lazy", mirror, "    lazyLoaders = true\n"), warmKit);
+
+        for (String task : Arrays.asList(":fabric:help", ":neoforge:help")) {
+            time(eager, task);
+            time(lazy, task);
+            for (int i = 0; i < iterations; i++) {
+                record("eager", "single-loader " + task, i, time(eager, task));
+                record("lazy", "single-loader-lazy " + task, i, time(lazy, task));
+            }
+        }
+    }
+
+    /**
+     * An unchanged workspace on a warm daemon, with Loom pinned to a release so it may stay loaded
+     * between builds. Records the whole build and the time spent in Warp's own phases.
+     */
+    private void runWarmDaemon(File mirror) throws IOException {
+        File workspace = workspaces.createWorkspace("daemon", mirror, "    loomVersion = \"" + StubWorkspaces.LOOM_RELEASE + "\"\n");
+        GradleRunner daemon = runner(workspace, new File(workDir, "testkit-warm"));
+
+        time(daemon, "warpProfile");
+        for (int i = 0; i < iterations; i++) {
+            record("daemon", "warm-daemon", i, time(daemon, "warpProfile"));
+            record("daemon", "warm-daemon warp-phases", i, warpPhaseMillis(workspace));
+        }
+    }
+
+    /**
+     * Total wall time of the configuration phases in the workspace's last {@code warpProfile} report.
+     */
+    private static long warpPhaseMillis(File workspace) throws IOException {
+        Path report = workspace.toPath().resolve("build/reports/warp/profile.json");
+        try (Reader reader = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+            JsonObject profile = JsonParser.parseReader(reader).getAsJsonObject();
+            long micros = 0;
+            for (JsonElement phase : profile.getAsJsonArray("phases")) {
+                micros += phase.getAsJsonObject().get("wallMicros").getAsLong();
+            }
+            return micros / 1000;
+        }
+    }
+
+    private GradleRunner runner(File workspace, File testKitDir) {
+        return GradleRunner.create()
+                .withProjectDir(workspace)
+                .withTestKitDir(testKitDir);
+    }
+
+    private long time(GradleRunner runner, String... args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        arguments.add("--offline");
+        arguments.add("--stacktrace");
+
+        long start = System.nanoTime();
+        runner.withArguments(arguments).build();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void record(String workspace, String scenario, int iteration, long millis) {
+        results.add(new Result(workspace, scenario, iteration, millis));
+        System.out.println(workspace + " " + scenario + " #" + iteration + ": " + millis + " ms");
+    }
+
+    // --- RESULTS ---
+
+    private void writeResults(File output) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("warpVersion", StubWorkspaces.WARP_VERSION);
+        report.put("minecraftVersion", StubWorkspaces.MINECRAFT_VERSION);
+        report.put("iterations", iterations);
+        report.put("medians", medians());
+        report.put("results", results);
+
+        Files.createDirectories(output.getParentFile().toPath());
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(report, writer);
+        }
+        System.out.println("Results written to " + output.getAbsolutePath());
+    }
+
+    private Map<String, Long> medians() {
+        Map<String, List<Long>> byScenario = new TreeMap<>();
+        for (Result result : results) {
+            byScenario.computeIfAbsent(result.scenario, k -> new ArrayList<>()).add(result.millis);
+        }
+
+        Map<String, Long> medians = new LinkedHashMap<>();
+        byScenario.forEach((scenario, values) -> {
+            Collections.sort(values);
+            medians.put(scenario, values.get(values.size() / 2));
+        });
+        return medians;
+    }
+
+    private static class Result {
+        private final String workspace;
+        private final String scenario;
+        private final int iteration;
+        private final long millis;
+
+        Result(String workspace, String scenario, int iteration, long millis) {
+            this.workspace = workspace;
+            this.scenario = scenario;
+            this.iteration = iteration;
+            this.millis = millis;
+        }
+    }
+}
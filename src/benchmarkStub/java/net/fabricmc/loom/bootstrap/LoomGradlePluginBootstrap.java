@@ -0,0 +1,22 @@
+package net.fabricmc.loom.bootstrap;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+/**
+ * Stand-in for Fabric Loom used by the Warp benchmarks. It exposes just the surface Warp touches
+ * (configurations and {@code loom.layered}), so workspaces configure without network access.
+ */
+public class LoomGradlePluginBootstrap implements Plugin<Project> {
+    @Override
+    public void apply(Project project) {
+        project.getPluginManager().apply("java");
+
+        project.getConfigurations().maybeCreate("minecraft");
+        project.getConfigurations().maybeCreate("mappings");
+        project.getConfigurations().maybeCreate("modImplementation");
+        project.getConfigurations().maybeCreate("namedElements").setCanBeResolved(false);
+
+        project.getExtensions().add("loom", new StubLoomExtension(project));
+    }
+}
@@ -0,0 +1,20 @@
+package net.fabricmc.loom.bootstrap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StubLayeredSpec {
+    private final List<Object> layers = new ArrayList<>();
+
+    public void officialMojangMappings() {
+        layers.add("official");
+    }
+
+    public void parchment(Object notation) {
+        layers.add(notation);
+    }
+
+    public List<Object> getLayers() {
+        return layers;
+    }
+}
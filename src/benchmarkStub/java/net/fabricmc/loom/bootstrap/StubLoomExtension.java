@@ -0,0 +1,18 @@
+package net.fabricmc.loom.bootstrap;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Dependency;
+
+public class StubLoomExtension {
+    private final Project project;
+
+    public StubLoomExtension(Project project) {
+        this.project = project;
+    }
+
+    public Dependency layered(Action<StubLayeredSpec> action) {
+        action.execute(new StubLayeredSpec());
+        return project.getDependencies().create(project.files());
+    }
+}
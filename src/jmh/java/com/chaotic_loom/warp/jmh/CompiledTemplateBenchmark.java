@@ -0,0 +1,111 @@
+package com.chaotic_loom.warp.jmh;
+
+import com.chaotic_loom.warp.CompiledTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rendering a scaffolding template with {@link CompiledTemplate}, against the regex substitution
+ * it replaced. The inputs are a build script with a placeholder on most lines, a mixin config with
+ * a few hundred entries, and a large access widener that is almost all literal text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledTemplateBenchmark {
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{\\s*([A-Z0-9_]+)\\s*\\}\\}");
+
+    @Param({"buildScript", "mixinConfig", "accessWidener"})
+    public String input;
+
+    private String source;
+    private CompiledTemplate compiled;
+    private Map<String, String> tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (input) {
+            case "buildScript": source = buildScript(); break;
+            case "mixinConfig": source = mixinConfig(); break;
+            case "accessWidener": source = accessWidener(); break;
+            default: throw new IllegalArgumentException("Unknown input " + input);
+        }
+        compiled = CompiledTemplate.compile(source);
+
+        tokens = new HashMap<>();
+        tokens.put("MOD_ID", "examplemod");
+        tokens.put("GROUP", "com.example");
+        tokens.put("PACKAGE", "com.example.examplemod");
+    }
+
+    private static String buildScript() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            builder.append("// Entry ").append(i).append(" of {{ MOD_ID }}\n")
+                    .append("project.ext.entry").append(i).append(" = \"{{ GROUP }}.{{ MOD_ID }}.Entry").append(i).append("\"\n")
+                    .append("dependencies { implementation \"com.example:lib").append(i).append(":1.0.0\" }\n");
+        }
+        return builder.toString();
+    }
+
+    private static String mixinConfig() {
+        StringBuilder builder = new StringBuilder("{\n  \"required\": true,\n  \"package\": \"{{ PACKAGE }}.mixin\",\n")
+                .append("  \"compatibilityLevel\": \"JAVA_17\",\n  \"refmap\": \"{{ MOD_ID }}.refmap.json\",\n  \"mixins\": [\n");
+        for (int i = 0; i < 300; i++) {
+            builder.append("    \"entity.EntityMixin").append(i).append(i < 299 ? "\",\n" : "\"\n");
+        }
+        builder.append("  ],\n  \"client\": [\n");
+        for (int i = 0; i < 100; i++) {
+            builder.append("    \"client.RendererMixin").append(i).append(i < 99 ? "\",\n" : "\"\n");
+        }
+        return builder.append("  ],\n  \"injectors\": {\n    \"defaultRequire\": 1\n  }\n}\n").toString();
+    }
+
+    private static String accessWidener() {
+        StringBuilder builder = new StringBuilder("accessWidener v2 named\n# Generated for {{ MOD_ID }}\n");
+        for (int i = 0; i < 2000; i++) {
+            switch (i % 3) {
+                case 0: builder.append("accessible class net/minecraft/world/level/block/Block").append(i).append('\n'); break;
+                case 1: builder.append("accessible method net/minecraft/world/entity/Entity").append(i)
+                        .append(" tick (Lnet/minecraft/world/level/Level;I)V\n"); break;
+                default: builder.append("mutable field net/minecraft/client/renderer/Renderer").append(i)
+                        .append(" state Lnet/minecraft/client/renderer/RenderState;\n"); break;
+            }
+        }
+        return builder.toString();
+    }
+
+    @Benchmark
+    public CompiledTemplate compile() {
+        return CompiledTemplate.compile(source);
+    }
+
+    @Benchmark
+    public String render() throws IOException {
+        StringWriter out = new StringWriter(source.length() + 256);
+        compiled.render(tokens, out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public String regexBaseline() {
+        Matcher matcher = VARIABLE_PATTERN.matcher(source);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            String value = tokens.getOrDefault(matcher.group(1), matcher.group(0));
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.chaotic_loom.warp.jmh;
+
+import com.chaotic_loom.warp.MinecraftVersion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up Minecraft versions through {@link MinecraftVersion#of(String)}, and sorting the full
+ * list of releases, pre-releases, release candidates and weekly snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinecraftVersionBenchmark {
+    private String[] names;
+    private List<MinecraftVersion> shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> all = new ArrayList<>();
+        for (int minor = 14; minor <= 21; minor++) {
+            for (int patch = 0; patch <= 6; patch++) {
+                String release = patch == 0 ? "1." + minor : "1." + minor + "." + patch;
+                for (int pre = 1; pre <= 4; pre++) all.add(release + "-pre" + pre);
+                for (int rc = 1; rc <= 2; rc++) all.add(release + "-rc" + rc);
+                all.add(release);
+            }
+        }
+        for (int year = 19; year <= 25; year++) {
+            for (int week = 1; week <= 50; week += 2) all.add(year + "w" + (week < 10 ? "0" : "") + week + "a");
+        }
+        for (int update = 1; update <= 4; update++) all.add("25." + update);
+
+        names = all.toArray(new String[0]);
+        shuffled = new ArrayList<>();
+        for (String name : names) shuffled.add(MinecraftVersion.of(name));
+        Collections.shuffle(shuffled, new Random(42));
+    }
+
+    @Benchmark
+    public int lookUpAll() {
+        int hash = 0;
+        for (String name : names) hash += MinecraftVersion.of(name).hashCode();
+        return hash;
+    }
+
+    @Benchmark
+    public List<MinecraftVersion> sortAll() {
+        List<MinecraftVersion> copy = new ArrayList<>(shuffled);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,136 @@
+package com.chaotic_loom.warp.jmh;
+
+import com.chaotic_loom.warp.ModuleGenerator;
+import com.chaotic_loom.warp.TemplateStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Scaffolding of a module with {@code templateCount} synthetic templates, shaped like the bundled
+ * ones: into an empty workspace, and an incremental reconcile of a workspace that is already up to date.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaffoldingBenchmark {
+    private static final String JAVA = "package {{ PACKAGE }};\n\n"
+            + "public class Entry%d {\n"
+            + "    public static final String MOD_ID = \"{{ MOD_ID }}\";\n\n"
+            + "    public static void init(String loaderName) {\n\n"
+            + "    }\n"
+            + "}\n";
+    private static final String JSON = "{\n"
+            + "  \"required\": true,\n"
+            + "  \"package\": \"{{ PACKAGE }}.mixin\",\n"
+            + "  \"compatibilityLevel\": \"JAVA_17\",\n"
+            + "  \"mixins\": [],\n"
+            + "  \"injectors\": {\n"
+            + "    \"defaultRequire\": 1\n"
+            + "  }\n"
+            + "}\n";
+
+    @Param({"8", "64", "512"})
+    public int templateCount;
+
+    private Map<String, String> tokens;
+    private List<TemplateStore.Template> templates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokens = new HashMap<>();
+        tokens.put("MOD_ID", "examplemod");
+        tokens.put("GROUP", "com.example");
+        tokens.put("PACKAGE", "com.example.examplemod");
+
+        // Half Java sources under the package directory, half JSON resources
+        templates = new ArrayList<>(templateCount);
+        for (int i = 0; i < templateCount; i++) {
+            String path = i % 2 == 0
+                    ? "src/main/java/__package__/__mod_id__/Entry" + i + ".java.txt"
+                    : "src/main/resources/__mod_id__." + i + ".mixins.json";
+            String content = i % 2 == 0 ? String.format(JAVA, i) : JSON;
+            templates.add(new TemplateStore.Template(path, content.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * A workspace emptied before every invocation, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class EmptyWorkspace {
+        Path rootDir;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            rootDir = Files.createTempDirectory("warp-scaffolding");
+        }
+
+        @Setup(Level.Invocation)
+        public void clear() throws IOException {
+            delete(rootDir);
+        }
+
+        @TearDown(Level.Trial)
+        public void remove() throws IOException {
+            delete(rootDir);
+            Files.deleteIfExists(rootDir);
+        }
+    }
+
+    /**
+     * A workspace already scaffolded with the same templates and tokens.
+     */
+    @State(Scope.Thread)
+    public static class ScaffoldedWorkspace {
+        Path rootDir;
+
+        @Setup(Level.Trial)
+        public void create(ScaffoldingBenchmark benchmark) throws IOException {
+            rootDir = Files.createTempDirectory("warp-scaffolding");
+            benchmark.scaffold(rootDir, true);
+        }
+
+        @TearDown(Level.Trial)
+        public void remove() throws IOException {
+            delete(rootDir);
+            Files.deleteIfExists(rootDir);
+        }
+    }
+
+    @Benchmark
+    public void fresh(EmptyWorkspace workspace) {
+        scaffold(workspace.rootDir, false);
+    }
+
+    @Benchmark
+    public void reconcileUnchanged(ScaffoldedWorkspace workspace) {
+        scaffold(workspace.rootDir, true);
+    }
+
+    private void scaffold(Path rootDir, boolean incremental) {
+        ModuleGenerator.generate(rootDir.toFile(), "synthetic", templates, tokens, incremental);
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                if (!p.equals(path)) Files.delete(p);
+            }
+        }
+    }
+}
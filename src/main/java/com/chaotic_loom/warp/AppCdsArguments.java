@@ -0,0 +1,257 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.jvm.toolchain.JavaInstallationMetadata;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * JVM arguments that run a Loom run task with a JDK AppCDS archive. The archive is named after a
+ * hash of the runtime classpath and the JVM that runs it: the first launch with a given classpath
+ * records it on exit ({@code -XX:ArchiveClassesAtExit}), later launches map it
+ * ({@code -XX:SharedArchiveFile}), and a classpath or JDK change simply starts a new archive.
+ * <p>
+ * A recording that exits cleanly without producing an archive is remembered, and that classpath
+ * then runs without AppCDS. Dedicated server runs also time the launch until the server reports
+ * {@code Done}, and log the difference between launches with and without the archive.
+ */
+public class AppCdsArguments implements CommandLineArgumentProvider, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logging.getLogger(AppCdsArguments.class);
+
+    private final File archiveDir;
+    private final String taskName;
+    private final FileCollection classpath;
+    private final Provider<String> jvm;
+
+    private AppCdsArguments(File archiveDir, String taskName, FileCollection classpath, Provider<String> jvm) {
+        this.archiveDir = archiveDir;
+        this.taskName = taskName;
+        this.classpath = classpath;
+        this.jvm = jvm;
+    }
+
+    /**
+     * Wires AppCDS into {@code exec} while it is configured.
+     */
+    public static void configure(JavaExec exec, File archiveDir) {
+        // The JVM refuses to archive with a non-empty directory ahead of any archived jar, so
+        // class directories move behind the jars (Loom sets the classpath when creating its run tasks)
+        FileCollection classpath = exec.getClasspath();
+        exec.setClasspath(classpath.filter(file -> !file.isDirectory()).plus(classpath.filter(File::isDirectory)));
+
+        // Read through the task, so the hash follows whatever classpath the task ends up with
+        FileCollection finalClasspath = exec.getProject().files((Callable<FileCollection>) exec::getClasspath);
+        // A dynamic archive only maps into the exact JVM that wrote it
+        Provider<String> jvm = exec.getJavaLauncher()
+                .map(launcher -> describe(launcher.getMetadata()))
+                .orElse(exec.getProject().provider(() -> describe(new File(exec.getExecutable()))));
+        AppCdsArguments arguments = new AppCdsArguments(archiveDir, exec.getName(), finalClasspath, jvm);
+        exec.getJvmArgumentProviders().add(arguments);
+        if (exec.getName().toLowerCase().contains("server")) exec.doFirst(new TimeStartup(arguments));
+        exec.doLast(new RecordOutcome(arguments));
+    }
+
+    @Override
+    public Iterable<String> asArguments() {
+        File archive = archive();
+        if (archive.isFile()) {
+            LOGGER.lifecycle("Orchestrator: Using AppCDS archive " + archive.getName());
+            return Arrays.asList("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto");
+        }
+        if (failureMarker(archive).isFile()) {
+            LOGGER.warn("Orchestrator: Recording " + archive.getName() + " failed before, running without AppCDS");
+            return Collections.emptyList();
+        }
+
+        try {
+            Files.createDirectories(archiveDir.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Orchestrator failed to set up AppCDS for " + taskName, e);
+        }
+        LOGGER.lifecycle("Orchestrator: Recording AppCDS archive " + archive.getName() + " (written when the game exits)");
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath());
+    }
+
+    private File archive() {
+        return new File(archiveDir, taskName + "-" + classpathHash() + ".jsa");
+    }
+
+    private static File failureMarker(File archive) {
+        return new File(archive.getParentFile(), archive.getName() + ".failed");
+    }
+
+    private static String describe(JavaInstallationMetadata metadata) {
+        return metadata.getInstallationPath().getAsFile().getAbsolutePath() + "|" + metadata.getJavaRuntimeVersion();
+    }
+
+    /**
+     * Without a launcher only the executable is known, so an in-place JDK update is caught by its
+     * modification time.
+     */
+    private static String describe(File executable) {
+        return executable.getAbsolutePath() + "|" + executable.lastModified();
+    }
+
+    /**
+     * Hash of the JVM and the classpath: paths, plus size and modification time of each jar. A
+     * rebuilt jar changes the hash without reading its contents. Directories are never archived,
+     * so recompiling the mod keeps the archive.
+     */
+    private String classpathHash() {
+        StringBuilder key = new StringBuilder(jvm.get()).append('\n');
+        for (File file : classpath.getFiles()) {
+            key.append(file.getAbsolutePath());
+            if (file.isFile()) key.append('|').append(file.length()).append('|').append(file.lastModified());
+            key.append('\n');
+        }
+        return Hashing.sha256(key.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    private void deleteStale(File current) throws IOException {
+        try (Stream<Path> files = Files.list(archiveDir.toPath())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean archiveFile = name.endsWith(".jsa") || name.endsWith(".jsa.failed");
+                if (name.startsWith(taskName + "-") && archiveFile && !name.startsWith(current.getName())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs after the game exited cleanly (a failed or interrupted run skips it): keeps the new
+     * archive and drops older ones, or remembers that this classpath can't be archived.
+     */
+    private static final class RecordOutcome implements Action<Task>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final AppCdsArguments arguments;
+
+        RecordOutcome(AppCdsArguments arguments) {
+            this.arguments = arguments;
+        }
+
+        @Override
+        public void execute(Task task) {
+            File archive = arguments.archive();
+            File marker = failureMarker(archive);
+            try {
+                if (archive.isFile()) {
+                    arguments.deleteStale(archive);
+                } else if (!marker.isFile()) {
+                    Files.createFile(marker.toPath());
+                    LOGGER.warn("Orchestrator: The JVM exited without writing " + archive.getName()
+                            + ", later runs with this classpath skip AppCDS");
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Orchestrator: Could not update AppCDS archives of " + task.getName(), e);
+            }
+        }
+    }
+
+    private static final class TimeStartup implements Action<Task>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final AppCdsArguments arguments;
+
+        TimeStartup(AppCdsArguments arguments) {
+            this.arguments = arguments;
+        }
+
+        @Override
+        public void execute(Task task) {
+            File timings = new File(arguments.archiveDir, task.getName() + "-startup.properties");
+            ((JavaExec) task).setStandardOutput(new StartupTimer(System.out, System.nanoTime(), arguments.archive().isFile(), timings));
+        }
+    }
+
+    /**
+     * Passes the server's output through and measures the time until its {@code Done (...)!} line.
+     */
+    private static final class StartupTimer extends OutputStream {
+        private static final String WITH = "withArchive";
+        private static final String WITHOUT = "withoutArchive";
+
+        private final PrintStream out;
+        private final long start;
+        private final boolean withArchive;
+        private final File timings;
+        private final StringBuilder line = new StringBuilder();
+        private boolean done;
+
+        StartupTimer(PrintStream out, long start, boolean withArchive, File timings) {
+            this.out = out;
+            this.start = start;
+            this.withArchive = withArchive;
+            this.timings = timings;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+            if (done) return;
+
+            if (b == '\n') {
+                if (line.indexOf("Done (") >= 0) {
+                    done = true;
+                    report((System.nanoTime() - start) / 1_000_000);
+                }
+                line.setLength(0);
+            } else {
+                line.append((char) b);
+            }
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+
+        private void report(long millis) {
+            Properties properties = new Properties();
+            try {
+                if (timings.isFile()) {
+                    try (InputStream in = Files.newInputStream(timings.toPath())) {
+                        properties.load(in);
+                    }
+                }
+                properties.setProperty(withArchive ? WITH : WITHOUT, String.valueOf(millis));
+                try (OutputStream os = Files.newOutputStream(timings.toPath())) {
+                    properties.store(os, "Warp AppCDS startup times (ms)");
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Orchestrator: Could not record startup time", e);
+            }
+
+            String other = properties.getProperty(withArchive ? WITHOUT : WITH);
+            String message = "Orchestrator: Server started in " + millis + " ms " + (withArchive ? "with" : "without") + " AppCDS";
+            if (other != null) {
+                long delta = withArchive ? millis - Long.parseLong(other) : Long.parseLong(other) - millis;
+                message += " (" + (delta <= 0 ? "" : "+") + delta + " ms with the archive)";
+            }
+            LOGGER.lifecycle(message);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.chaotic_loom.warp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed local copy of the artifacts Warp resolves, used by offline mode.
+ * <p>
+ * Every file is stored once under {@code objects/<sha256>} and linked into a Maven layout
+ * under {@code maven/}, which Gradle then reads as a plain file repository.
+ */
+public class ArtifactMirror {
+    private static final Pattern UNIQUE_SNAPSHOT = Pattern.compile("(.+)-\\d{8}\\.\\d{6}-\\d+");
+
+    private final File root;
+
+    public ArtifactMirror(File root) {
+        this.root = root;
+    }
+
+    public File getMavenDir() {
+        return new File(root, "maven");
+    }
+
+    /**
+     * Adds {@code source} as {@code group:module:version} with the given file name. Safe to call
+     * concurrently; an existing identical entry is left as-is.
+     */
+    public void store(File source, String group, String module, String version, String fileName) throws IOException {
+        Path target = getMavenDir().toPath()
+                .resolve(group.replace('.', '/'))
+                .resolve(module)
+                .resolve(versionDirectory(version))
+                .resolve(fileName);
+
+        String hash = Hashing.sha256(source.toPath());
+        Path object = root.toPath().resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
+
+        if (!Files.exists(object)) {
+            publish(object, tmp -> Files.copy(source.toPath(), tmp));
+        }
+
+        if (Files.exists(target) && Hashing.sha256(target).equals(hash)) return;
+
+        publish(target, tmp -> {
+            try {
+                Files.createLink(tmp, object);
+            } catch (IOException | UnsupportedOperationException e) {
+                // Different file store or no hard link support
+                Files.copy(object, tmp);
+            }
+        });
+    }
+
+    /**
+     * Maven keeps a unique snapshot build such as {@code 1.9-20241201.103012-4} in the directory of its
+     * snapshot, {@code 1.9-SNAPSHOT}, which is where Gradle looks for it.
+     */
+    static String versionDirectory(String version) {
+        Matcher matcher = UNIQUE_SNAPSHOT.matcher(version);
+        return matcher.matches() ? matcher.group(1) + "-SNAPSHOT" : version;
+    }
+
+    private static void publish(Path destination, Publisher publisher) throws IOException {
+        Files.createDirectories(destination.getParent());
+        Path tmp = destination.resolveSibling(destination.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            publisher.write(tmp);
+            Files.move(tmp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private interface Publisher {
+        void write(Path tmp) throws IOException;
+    }
+}
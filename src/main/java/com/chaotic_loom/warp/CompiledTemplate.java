@@ -0,0 +1,219 @@
+package com.chaotic_loom.warp;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A scaffolding template parsed once into literal and placeholder segments.
+ * <p>
+ * Supported syntax:
+ * <ul>
+ *     <li>{@code {{ KEY }}} - replaced by the token value, left as-is when the token is unknown</li>
+ *     <li>{@code {{#if KEY}} ... {{else}} ... {{/if}}} - the first branch when the token is set, not empty and not {@code false}</li>
+ *     <li>{@code {{#each KEY}} ... {{/each}}} - repeated for every comma separated value of the token, exposed as {@code {{ ITEM }}}</li>
+ * </ul>
+ */
+public class CompiledTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final String ITEM = "ITEM";
+
+    private final Node[] nodes;
+
+    private CompiledTemplate(Node[] nodes) {
+        this.nodes = nodes;
+    }
+
+    public static CompiledTemplate compile(String source) {
+        Parser parser = new Parser(source);
+        List<Node> nodes = parser.parseUntil(null);
+        return new CompiledTemplate(nodes.toArray(new Node[0]));
+    }
+
+    public void render(Map<String, String> tokens, Writer out) throws IOException {
+        Scope scope = new Scope(tokens);
+        for (Node node : nodes) node.render(scope, out);
+    }
+
+    // --- PARSING ---
+
+    private static class Parser {
+        private final String source;
+        private int pos;
+        private String closedBy;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        /**
+         * Parses nodes until the given closing tag ({@code null} means end of input).
+         * The tag that ended the run is left in {@link #closedBy}.
+         */
+        List<Node> parseUntil(String endTag) {
+            List<Node> nodes = new ArrayList<>();
+
+            while (pos < source.length()) {
+                int open = source.indexOf(OPEN, pos);
+                int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+
+                if (open < 0 || close < 0) {
+                    nodes.add(new Literal(source.substring(pos)));
+                    pos = source.length();
+                    break;
+                }
+
+                if (open > pos) nodes.add(new Literal(source.substring(pos, open)));
+
+                String raw = source.substring(open, close + CLOSE.length());
+                String tag = source.substring(open + OPEN.length(), close).trim();
+                pos = close + CLOSE.length();
+
+                if (tag.equals("/if") || tag.equals("/each") || tag.equals("else")) {
+                    if (endTag == null) throw new IllegalArgumentException("Unexpected {{" + tag + "}} in template");
+                    closedBy = tag;
+                    return nodes;
+                }
+
+                if (tag.startsWith("#if ")) {
+                    String key = tag.substring(4).trim();
+                    List<Node> then = parseUntil("/if");
+                    List<Node> otherwise = new ArrayList<>();
+                    if ("else".equals(closedBy)) otherwise = parseUntil("/if");
+                    expectClosed("/if", "#if " + key);
+                    nodes.add(new If(key, then.toArray(new Node[0]), otherwise.toArray(new Node[0])));
+                } else if (tag.startsWith("#each ")) {
+                    String key = tag.substring(6).trim();
+                    List<Node> body = parseUntil("/each");
+                    expectClosed("/each", "#each " + key);
+                    nodes.add(new Each(key, body.toArray(new Node[0])));
+                } else if (isKey(tag)) {
+                    nodes.add(new Variable(tag, raw));
+                } else {
+                    nodes.add(new Literal(raw));
+                }
+            }
+
+            if (endTag != null) throw new IllegalArgumentException("Missing {{" + endTag + "}} in template");
+            closedBy = null;
+            return nodes;
+        }
+
+        private void expectClosed(String expected, String block) {
+            if (!expected.equals(closedBy)) {
+                throw new IllegalArgumentException("{{" + block + "}} closed by {{" + closedBy + "}} in template");
+            }
+            closedBy = null;
+        }
+
+        private static boolean isKey(String tag) {
+            if (tag.isEmpty()) return false;
+            for (int i = 0; i < tag.length(); i++) {
+                char c = tag.charAt(i);
+                if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_')) return false;
+            }
+            return true;
+        }
+    }
+
+    // --- RENDERING ---
+
+    private static class Scope {
+        private final Map<String, String> tokens;
+        private String item;
+
+        Scope(Map<String, String> tokens) {
+            this.tokens = tokens;
+        }
+
+        String get(String key) {
+            if (item != null && key.equals(ITEM)) return item;
+            return tokens.get(key);
+        }
+    }
+
+    private interface Node {
+        void render(Scope scope, Writer out) throws IOException;
+    }
+
+    private static class Literal implements Node {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            out.write(text);
+        }
+    }
+
+    private static class Variable implements Node {
+        private final String key;
+        private final String raw;
+
+        Variable(String key, String raw) {
+            this.key = key;
+            this.raw = raw;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            String value = scope.get(key);
+            out.write(value != null ? value : raw); // Default to original if missing
+        }
+    }
+
+    private static class If implements Node {
+        private final String key;
+        private final Node[] then;
+        private final Node[] otherwise;
+
+        If(String key, Node[] then, Node[] otherwise) {
+            this.key = key;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            String value = scope.get(key);
+            boolean truthy = value != null && !value.isEmpty() && !value.equalsIgnoreCase("false");
+            for (Node node : truthy ? then : otherwise) node.render(scope, out);
+        }
+    }
+
+    private static class Each implements Node {
+        private final String key;
+        private final Node[] body;
+
+        Each(String key, Node[] body) {
+            this.key = key;
+            this.body = body;
+        }
+
+        @Override
+        public void render(Scope scope, Writer out) throws IOException {
+            String value = scope.get(key);
+            if (value == null || value.isEmpty()) return;
+
+            String outer = scope.item;
+            int start = 0;
+            while (start <= value.length()) {
+                int comma = value.indexOf(',', start);
+                int end = comma < 0 ? value.length() : comma;
+
+                scope.item = value.substring(start, end).trim();
+                for (Node node : body) node.render(scope, out);
+
+                if (comma < 0) break;
+                start = comma + 1;
+            }
+            scope.item = outer;
+        }
+    }
+}
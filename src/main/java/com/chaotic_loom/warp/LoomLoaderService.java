@@ -0,0 +1,141 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build-scoped holder of the Loom plugin classes. Each coordinate (and lock checksum) gets its own
+ * classloader, so Loom is resolved and loaded once per coordinate, every Warp module applies the
+ * same bootstrap class, and two Loom versions never shadow each other.
+ * <p>
+ * The last few exact coordinates (a locked or release version) are also remembered by the daemon,
+ * so later builds skip resolving and loading Loom altogether. Older ones are dropped, so their
+ * classloaders can be unloaded. Snapshots and dynamic versions are resolved in every build, as
+ * they may point at a new jar.
+ */
+public abstract class LoomLoaderService implements BuildService<BuildServiceParameters.None> {
+    public static final String NAME = "warpLoomLoader";
+
+    private static final Logger LOGGER = Logging.getLogger(LoomLoaderService.class);
+    private static final String BOOTSTRAP_CLASS = "net.fabricmc.loom.bootstrap.LoomGradlePluginBootstrap";
+
+    private static final int MAX_DAEMON_BOOTSTRAPS = 2;
+
+    private static final Map<String, Class<?>> DAEMON_BOOTSTRAPS = new LinkedHashMap<String, Class<?>>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Class<?>> eldest) {
+            return size() > MAX_DAEMON_BOOTSTRAPS;
+        }
+    };
+
+    private final Map<String, Class<?>> bootstraps = new HashMap<>();
+    private final Map<String, Long> loadTimes = new HashMap<>();
+
+    /**
+     * @param expectedSha256 checksum the Loom jar must match (from {@code warp.lock}), or {@code null}
+     */
+    public synchronized Class<?> getBootstrap(Project project, String coordinate, String expectedSha256) {
+        String key = coordinate + "@" + expectedSha256;
+        Class<?> cached = bootstraps.get(key);
+        if (cached != null) {
+            LOGGER.info("Orchestrator: Reusing Loom classloader for " + project.getName()
+                    + " (saved ~" + loadTimes.get(key) + " ms)");
+            return cached;
+        }
+
+        boolean exact = isExact(coordinate);
+        Class<?> remembered = null;
+        if (exact) {
+            synchronized (DAEMON_BOOTSTRAPS) {
+                remembered = DAEMON_BOOTSTRAPS.get(key);
+            }
+        }
+        if (remembered != null) {
+            bootstraps.put(key, remembered);
+            loadTimes.put(key, 0L);
+            LOGGER.lifecycle("Orchestrator: Reusing " + coordinate + " loaded by an earlier build in this daemon");
+            return remembered;
+        }
+
+        long start = System.nanoTime();
+        Class<?> pluginClass = load(project, coordinate, expectedSha256);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (exact) {
+            synchronized (DAEMON_BOOTSTRAPS) {
+                DAEMON_BOOTSTRAPS.put(key, pluginClass);
+            }
+        }
+
+        bootstraps.put(key, pluginClass);
+        loadTimes.put(key, elapsed);
+        LOGGER.lifecycle("Orchestrator: Resolved and loaded " + coordinate + " in " + elapsed + " ms");
+        return pluginClass;
+    }
+
+    private static boolean isExact(String coordinate) {
+        String version = coordinate.substring(coordinate.lastIndexOf(':') + 1);
+        return !version.endsWith("-SNAPSHOT") && !version.contains("+") && !version.startsWith("latest.")
+                && !version.startsWith("[") && !version.startsWith("(");
+    }
+
+    private Class<?> load(Project project, String coordinate, String expectedSha256) {
+        try {
+            Configuration config = project.getConfigurations().detachedConfiguration(
+                    project.getDependencies().create(coordinate)
+            );
+            config.setTransitive(true);
+            Set<File> files = config.resolve();
+
+            if (expectedSha256 != null) verify(config, coordinate, expectedSha256);
+
+            URL[] urls = files.stream()
+                    .map(file -> {
+                        try { return file.toURI().toURL(); }
+                        catch (Exception e) { throw new RuntimeException(e); }
+                    })
+                    .toArray(URL[]::new);
+
+            // A dedicated loader per coordinate: the plugin classloader is shared by every build in
+            // the daemon, so pushing Loom into it would pin whichever version was loaded first.
+            URLClassLoader loader = new URLClassLoader(urls, LoomLoaderService.class.getClassLoader());
+            return loader.loadClass(BOOTSTRAP_CLASS);
+        } catch (Exception e) {
+            throw new RuntimeException("Orchestrator failed to load Fabric Loom for " + project.getName(), e);
+        }
+    }
+
+    private static void verify(Configuration config, String coordinate, String expectedSha256) throws IOException {
+        String[] parts = coordinate.split(":");
+        for (ResolvedArtifactResult artifact : config.getIncoming().getArtifacts()) {
+            ComponentIdentifier id = artifact.getId().getComponentIdentifier();
+            if (!(id instanceof ModuleComponentIdentifier)) continue;
+
+            ModuleComponentIdentifier module = (ModuleComponentIdentifier) id;
+            if (!module.getGroup().equals(parts[0]) || !module.getModule().equals(parts[1])) continue;
+
+            String actual = Hashing.sha256(artifact.getFile().toPath());
+            if (!actual.equals(expectedSha256)) {
+                throw new IllegalStateException("Checksum mismatch for " + coordinate + ": warp.lock expects "
+                        + expectedSha256 + " but " + artifact.getFile() + " is " + actual);
+            }
+            return;
+        }
+        throw new IllegalStateException("Could not find the " + coordinate + " jar to verify against warp.lock");
+    }
+}
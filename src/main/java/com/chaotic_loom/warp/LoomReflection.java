@@ -0,0 +1,66 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.Action;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.Predicate;
+
+/**
+ * The Loom methods Warp calls reflectively, looked up once per Loom class and kept as
+ * {@link MethodHandle}s. {@link ClassValue} ties each handle to the class it was found on, so a
+ * daemon that loads another Loom build gets fresh lookups and the old classes can be unloaded.
+ */
+final class LoomReflection {
+    private static final ClassValue<MethodHandle> LAYERED = handles("layered",
+            method -> method.getParameterCount() == 1 && method.getParameterTypes()[0] == Action.class, false);
+    private static final ClassValue<MethodHandle> OFFICIAL_MOJANG_MAPPINGS = handles("officialMojangMappings",
+            method -> method.getParameterCount() == 0, false);
+    // Older Loom builds have no Parchment support; the layer is then skipped
+    private static final ClassValue<MethodHandle> PARCHMENT = handles("parchment",
+            method -> method.getParameterCount() == 1, true);
+
+    private LoomReflection() {
+    }
+
+    /**
+     * {@code loom.layered(action)}, returning the layered mappings dependency.
+     */
+    static Object layered(Object loom, Action<?> action) throws Throwable {
+        return LAYERED.get(loom.getClass()).invokeExact(loom, (Object) action);
+    }
+
+    static void officialMojangMappings(Object spec) throws Throwable {
+        Object ignored = OFFICIAL_MOJANG_MAPPINGS.get(spec.getClass()).invokeExact(spec);
+    }
+
+    static void parchment(Object spec, Object notation) throws Throwable {
+        Object ignored = PARCHMENT.get(spec.getClass()).invokeExact(spec, notation);
+    }
+
+    private static ClassValue<MethodHandle> handles(String name, Predicate<Method> signature, boolean optional) {
+        return new ClassValue<MethodHandle>() {
+            @Override
+            protected MethodHandle computeValue(Class<?> type) {
+                for (Method method : type.getMethods()) {
+                    if (!method.getName().equals(name) || !signature.test(method)) continue;
+                    try {
+                        // Loom's extension classes are generated subclasses that may not be public
+                        method.setAccessible(true);
+                        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                        return handle.asType(MethodType.genericMethodType(method.getParameterCount() + 1));
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        throw new IllegalStateException("Could not access " + type.getName() + "." + name, e);
+                    }
+                }
+                if (optional) {
+                    // Same shape as the real handle: (receiver, argument) -> null
+                    return MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class, Object.class);
+                }
+                throw new IllegalStateException("Could not find " + name + " on " + type.getName());
+            }
+        };
+    }
+}
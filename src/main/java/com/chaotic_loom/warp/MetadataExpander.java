@@ -0,0 +1,137 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Streaming replacements for loader metadata: {@code ${key}} expansion without Groovy's template
+ * engine, and JSON minification without building a tree.
+ */
+public final class MetadataExpander {
+    private MetadataExpander() {
+    }
+
+    /**
+     * Wraps {@code in} so every {@code ${key}} reads as its value. Unknown keys fail and {@code \$}
+     * reads as a literal {@code $}, like Groovy's {@code expand()}.
+     */
+    public static Reader expand(Reader in, Map<String, String> values) {
+        return new ExpandingReader(in, values);
+    }
+
+    /**
+     * Copies one JSON document from {@code in} to {@code out} without whitespace. Numbers and
+     * strings are written exactly as read; trailing content after the document fails.
+     */
+    public static void minifyJson(Reader in, Writer out) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        JsonWriter writer = new JsonWriter(out);
+        writer.setSerializeNulls(true);
+        writer.setHtmlSafe(false);
+
+        int depth = 0;
+        do {
+            JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_ARRAY: reader.beginArray(); writer.beginArray(); depth++; break;
+                case END_ARRAY: reader.endArray(); writer.endArray(); depth--; break;
+                case BEGIN_OBJECT: reader.beginObject(); writer.beginObject(); depth++; break;
+                case END_OBJECT: reader.endObject(); writer.endObject(); depth--; break;
+                case NAME: writer.name(reader.nextName()); break;
+                case STRING: writer.value(reader.nextString()); break;
+                case NUMBER: writer.jsonValue(reader.nextString()); break;
+                case BOOLEAN: writer.value(reader.nextBoolean()); break;
+                case NULL: reader.nextNull(); writer.nullValue(); break;
+                default: throw new IOException("Unexpected JSON token " + token);
+            }
+        } while (depth > 0);
+
+        // Anything after the first value, comments included, is not a document we can rewrite
+        if (reader.peek() != JsonToken.END_DOCUMENT) throw new IOException("Unexpected content after the JSON document");
+        writer.flush();
+    }
+
+    private static final class ExpandingReader extends Reader {
+        private final Reader in;
+        private final Map<String, String> values;
+
+        // Replacement text still to be handed out, and a character read ahead while looking for '{'
+        private String pending = "";
+        private int pendingPos;
+        private int lookahead = -2;
+
+        ExpandingReader(Reader in, Map<String, String> values) {
+            this.in = in;
+            this.values = values;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+
+            int count = 0;
+            while (count < length) {
+                int c = next();
+                if (c < 0) break;
+                buffer[offset + count++] = (char) c;
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        private int next() throws IOException {
+            if (pendingPos < pending.length()) return pending.charAt(pendingPos++);
+
+            int c = readRaw();
+            if (c == '\\') {
+                int escaped = readRaw();
+                if (escaped == '$') return escaped;
+
+                // Any other escaped character (a second backslash included) is handed out as-is
+                pending = escaped < 0 ? "" : String.valueOf((char) escaped);
+                pendingPos = 0;
+                return c;
+            }
+            if (c != '$') return c;
+
+            int open = readRaw();
+            if (open != '{') {
+                lookahead = open;
+                return c;
+            }
+
+            StringBuilder key = new StringBuilder();
+            for (int k = readRaw(); k != '}'; k = readRaw()) {
+                if (k < 0) throw new IOException("Unterminated ${" + key);
+                key.append((char) k);
+            }
+
+            String name = key.toString().trim();
+            String value = values.get(name);
+            if (value == null) throw new IOException("No value for ${" + name + "}");
+
+            pending = value;
+            pendingPos = 0;
+            return next();
+        }
+
+        private int readRaw() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -2,45 +2,182 @@ package com.chaotic_loom.warp;
 
 import org.jetbrains.annotations.NotNull;
 
-public class MinecraftVersion implements Comparable<MinecraftVersion> {
-    private final int[] parts;
-    private final boolean isYearBased;
+import java.util.concurrent.ConcurrentHashMap;
 
-    public MinecraftVersion(String versionStr) {
-        String[] split = versionStr.split("\\.");
-        this.parts = new int[split.length];
+/**
+ * A Minecraft version packed into a single {@code long} sort key, so comparing two versions
+ * is one primitive compare. Instances are interned through {@link #of(String)}.
+ * <p>
+ * Understood formats:
+ * <ul>
+ *     <li>Releases: {@code 1.20.1}, {@code 1.21}, and the Year.Update scheme ({@code 25.1})</li>
+ *     <li>Pre-releases and release candidates: {@code 1.21-pre1}, {@code 1.21-rc1}, {@code 26.1-snapshot-2}</li>
+ *     <li>Weekly snapshots: {@code 24w14a}</li>
+ * </ul>
+ * Weekly snapshots don't name the release they lead to, so they are placed through a table of
+ * the week each snapshot series started in: {@code 24w14a} sorts after {@code 1.20.4} and before
+ * {@code 1.20.5-pre1}. Snapshots from before the table sort before every numbered version, and
+ * snapshots newer than the table are taken to lead to its last release.
+ */
+public final class MinecraftVersion implements Comparable<MinecraftVersion> {
+    private static final ConcurrentHashMap<String, MinecraftVersion> CACHE = new ConcurrentHashMap<>();
 
-        for (int i = 0; i < split.length; i++) {
-            this.parts[i] = Integer.parseInt(split[i]);
+    // Layout: [major:12][minor:12][patch:12][channel:2][channel number:24]
+    private static final int SEGMENT_BITS = 12;
+    private static final int SEGMENT_MAX = (1 << SEGMENT_BITS) - 1;
+    // Weekly snapshots use the top of the channel number, above any -snapshot-N
+    private static final int WEEKLY = 1 << 23;
+
+    private static final int CHANNEL_SNAPSHOT = 0;
+    private static final int CHANNEL_PRE = 1;
+    private static final int CHANNEL_RC = 2;
+    private static final int CHANNEL_RELEASE = 3;
+
+    // First week (yyww) of each weekly snapshot series, and the release the series led to
+    private static final int[] SERIES_START = {
+            1843, 1934, 2006, 2027, 2045, 2137, 2203, 2211, 2224, 2242, 2303, 2312, 2331, 2340,
+            2403, 2418, 2433, 2444, 2502, 2515, 2531, 2541
+    };
+    private static final long[] SERIES_RELEASE = releaseKeys(
+            "1.14", "1.15", "1.16", "1.16.2", "1.17", "1.18", "1.18.2", "1.19", "1.19.1", "1.19.3",
+            "1.19.4", "1.20", "1.20.2", "1.20.3", "1.20.5", "1.21", "1.21.2", "1.21.4", "1.21.5",
+            "1.21.6", "1.21.9", "1.21.11"
+    );
+
+    private final String raw;
+    private final long key;
+
+    private MinecraftVersion(String raw, long key) {
+        this.raw = raw;
+        this.key = key;
+    }
+
+    public static MinecraftVersion of(String versionStr) {
+        MinecraftVersion cached = CACHE.get(versionStr);
+        if (cached != null) return cached;
+        return CACHE.computeIfAbsent(versionStr, s -> new MinecraftVersion(s, parse(s)));
+    }
+
+    private static long parse(String s) {
+        int length = s.length();
+        if (length == 0) throw invalid(s);
+
+        int w = s.indexOf('w');
+        if (w > 0) return parseWeekly(s, w);
+
+        // Up to three numeric segments
+        int major = 0, minor = 0, patch = 0;
+        int index = 0;
+        int pos = 0;
+        while (true) {
+            int start = pos;
+            int value = 0;
+            while (pos < length && isDigit(s.charAt(pos))) {
+                value = value * 10 + (s.charAt(pos) - '0');
+                if (value > SEGMENT_MAX) throw invalid(s);
+                pos++;
+            }
+            if (pos == start || index == 3) throw invalid(s);
+            switch (index++) {
+                case 0: major = value; break;
+                case 1: minor = value; break;
+                default: patch = value; break;
+            }
+
+            if (pos < length && s.charAt(pos) == '.') {
+                pos++;
+                continue;
+            }
+            break;
+        }
+
+        int channel = CHANNEL_RELEASE;
+        int channelNumber = 0;
+        if (pos < length) {
+            if (s.charAt(pos) != '-') throw invalid(s);
+            pos++;
+
+            if (s.startsWith("pre", pos)) {
+                channel = CHANNEL_PRE;
+                pos += 3;
+            } else if (s.startsWith("rc", pos)) {
+                channel = CHANNEL_RC;
+                pos += 2;
+            } else if (s.startsWith("snapshot-", pos)) {
+                channel = CHANNEL_SNAPSHOT;
+                pos += 9;
+            } else {
+                throw invalid(s);
+            }
+
+            int start = pos;
+            while (pos < length && isDigit(s.charAt(pos))) {
+                channelNumber = channelNumber * 10 + (s.charAt(pos) - '0');
+                if (channelNumber > SEGMENT_MAX) throw invalid(s);
+                pos++;
+            }
+            if (pos == start || pos != length) throw invalid(s);
         }
 
-        // Minecraft's transition: If the first number is >= 25,
-        // it's the new Year.Update system.
-        this.isYearBased = this.parts[0] >= 25;
+        return ((long) major << 50)
+                | ((long) minor << 38)
+                | ((long) patch << 26)
+                | ((long) channel << 24)
+                | channelNumber;
+    }
+
+    private static long parseWeekly(String s, int w) {
+        // <year:2 digits>w<week:2 digits><letter>
+        if (w != 2 || s.length() != 6) throw invalid(s);
+        char letter = s.charAt(5);
+        if (!isDigit(s.charAt(0)) || !isDigit(s.charAt(1)) || !isDigit(s.charAt(3)) || !isDigit(s.charAt(4))
+                || letter < 'a' || letter > 'z') {
+            throw invalid(s);
+        }
+
+        int year = (s.charAt(0) - '0') * 10 + (s.charAt(1) - '0');
+        int week = (s.charAt(3) - '0') * 10 + (s.charAt(4) - '0');
+
+        int series = -1;
+        int yearWeek = year * 100 + week;
+        while (series + 1 < SERIES_START.length && SERIES_START[series + 1] <= yearWeek) series++;
+
+        // The release's channel is replaced by the snapshot channel, keeping its major.minor.patch
+        long release = series < 0 ? 0 : SERIES_RELEASE[series] & ~((1L << 26) - 1);
+        return release | ((long) CHANNEL_SNAPSHOT << 24) | WEEKLY | (yearWeek << 5) | (letter - 'a');
+    }
+
+    private static long[] releaseKeys(String... releases) {
+        long[] keys = new long[releases.length];
+        for (int i = 0; i < releases.length; i++) keys[i] = parse(releases[i]);
+        return keys;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(String s) {
+        return new IllegalArgumentException("Unrecognised Minecraft version: '" + s + "'");
     }
 
     @Override
     public int compareTo(@NotNull MinecraftVersion other) {
-        // Handle the era transition first
-        if (this.isYearBased && !other.isYearBased) return 1;  // This is newer
-        if (!this.isYearBased && other.isYearBased) return -1; // This is older
-
-        // Compare individual segments
-        int maxLength = Math.max(this.parts.length, other.parts.length);
-        for (int i = 0; i < maxLength; i++) {
-            int v1 = i < this.parts.length ? this.parts[i] : 0;
-            int v2 = i < other.parts.length ? other.parts[i] : 0;
-
-            if (v1 != v2) {
-                return v1 > v2 ? 1 : -1;
-            }
-        }
-        return 0; // They are equal
+        return Long.compare(this.key, other.key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof MinecraftVersion && ((MinecraftVersion) o).key == key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
     }
 
     @Override
     public String toString() {
-        return String.join(".", java.util.Arrays.stream(parts)
-                .mapToObj(String::valueOf).toArray(String[]::new));
+        return raw;
     }
-}
\ No newline at end of file
+}
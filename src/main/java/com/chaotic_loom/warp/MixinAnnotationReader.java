@@ -0,0 +1,162 @@
+package com.chaotic_loom.warp;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the targets of a {@code @Mixin} annotation straight from a class file, without loading
+ * the class or depending on ASM. Only the constant pool and the class-level annotation
+ * attributes are decoded; fields, methods and code are skipped.
+ */
+final class MixinAnnotationReader {
+    private static final String MIXIN_DESCRIPTOR = "Lorg/spongepowered/asm/mixin/Mixin;";
+
+    private MixinAnnotationReader() {
+    }
+
+    /**
+     * Internal names of the classes targeted by the class's {@code @Mixin}, or {@code null} if it
+     * has no {@code @Mixin} annotation.
+     */
+    static List<String> readTargets(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(classFile);
+        if (in.readInt() != 0xCAFEBABE) throw new IOException("Not a class file");
+        in.readUnsignedShort(); // minor
+        in.readUnsignedShort(); // major
+
+        String[] utf8 = readConstantPool(in);
+
+        in.readUnsignedShort(); // access
+        in.readUnsignedShort(); // this
+        in.readUnsignedShort(); // super
+        skip(in, in.readUnsignedShort() * 2); // interfaces
+
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+
+            // @Mixin has CLASS retention, but accept either attribute
+            if ("RuntimeInvisibleAnnotations".equals(name) || "RuntimeVisibleAnnotations".equals(name)) {
+                List<String> targets = readMixin(in, utf8);
+                if (targets != null) return targets;
+            } else {
+                skip(in, length);
+            }
+        }
+        return null;
+    }
+
+    private static String[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: utf8[i] = in.readUTF(); break;
+                case 7: case 8: case 16: case 19: case 20: skip(in, 2); break;
+                case 15: skip(in, 3); break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: skip(in, 4); break;
+                case 5: case 6: skip(in, 8); i++; break; // Longs and doubles take two slots
+                default: throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return utf8;
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access, name, descriptor
+            int attributes = in.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                in.readUnsignedShort();
+                skip(in, in.readInt());
+            }
+        }
+    }
+
+    /**
+     * Reads one annotations attribute in full, returning the {@code @Mixin} targets if present.
+     */
+    private static List<String> readMixin(DataInputStream in, String[] utf8) throws IOException {
+        List<String> result = null;
+        int annotations = in.readUnsignedShort();
+        for (int i = 0; i < annotations; i++) {
+            String type = utf8[in.readUnsignedShort()];
+            if (!MIXIN_DESCRIPTOR.equals(type)) {
+                skipPairs(in);
+                continue;
+            }
+
+            result = new ArrayList<>();
+            int pairs = in.readUnsignedShort();
+            for (int j = 0; j < pairs; j++) {
+                String name = utf8[in.readUnsignedShort()];
+                if ("value".equals(name) || "targets".equals(name)) {
+                    readTargetValues(in, utf8, result);
+                } else {
+                    skipElementValue(in);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void readTargetValues(DataInputStream in, String[] utf8, List<String> targets) throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag != '[') {
+            readTargetValue(tag, in, utf8, targets);
+            return;
+        }
+
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            readTargetValue(in.readUnsignedByte(), in, utf8, targets);
+        }
+    }
+
+    private static void readTargetValue(int tag, DataInputStream in, String[] utf8, List<String> targets) throws IOException {
+        String value = utf8[in.readUnsignedShort()];
+        if (tag == 'c') {
+            // Lnet/minecraft/Foo; -> net/minecraft/Foo
+            targets.add(value.substring(1, value.length() - 1));
+        } else if (tag == 's') {
+            targets.add(value.replace('.', '/'));
+        } else {
+            throw new IOException("Unexpected @Mixin target value of type " + (char) tag);
+        }
+    }
+
+    private static void skipPairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.readUnsignedShort();
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e': skip(in, 4); break;
+            case '@': in.readUnsignedShort(); skipPairs(in); break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) skipElementValue(in);
+                break;
+            default: skip(in, 2); break; // Constants, strings and classes
+        }
+    }
+
+    private static void skip(DataInputStream in, int bytes) throws IOException {
+        in.skipNBytes(bytes);
+    }
+}
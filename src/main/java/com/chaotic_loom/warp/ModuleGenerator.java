@@ -2,114 +2,135 @@ package com.chaotic_loom.warp;
 
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 
 import java.io.*;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.security.CodeSource;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.TreeMap;
 
 public class ModuleGenerator {
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{\\s*([A-Z0-9_]+)\\s*\\}\\}");
+    private static final Logger LOGGER = Logging.getLogger(ModuleGenerator.class);
+
+    /**
+     * Scaffolds {@code moduleName} from the bundled templates.
+     * <p>
+     * By default an existing module directory is never touched. In incremental mode every template
+     * is reconciled on its own whenever the tokens or the Warp version changed: files Warp has never
+     * written are created, files still matching what Warp last wrote are updated, and files the user
+     * edited or deleted are left alone. Deleting the whole module directory scaffolds it afresh.
+     */
+    public static void generate(File rootDir, String moduleName, Map<String, String> tokens, boolean incremental) {
+        generate(rootDir, moduleName, TemplateStore.forModule(moduleName), tokens, incremental);
+    }
 
-    public static void generate(File rootDir, String moduleName, Map<String, String> tokens) {
+    /**
+     * Scaffolds {@code moduleName} from {@code templates} instead of the bundled ones.
+     */
+    public static void generate(File rootDir, String moduleName, List<TemplateStore.Template> templates, Map<String, String> tokens, boolean incremental) {
         File moduleDir = new File(rootDir, moduleName);
-        if (moduleDir.exists()) return; // Safety: Never overwrite existing user modules
-
-        moduleDir.mkdirs();
+        if (moduleDir.exists() && !incremental) return; // Safety: Never overwrite existing user modules
 
         try {
-            copyTemplates(rootDir, moduleName, tokens);
+            ScaffoldManifest manifest = ScaffoldManifest.load(rootDir);
+            String stamp = stamp(tokens);
+
+            if (moduleDir.exists()) {
+                if (stamp.equals(manifest.getStamp(moduleName))) return; // Nothing changed since the last reconcile
+            } else {
+                manifest.forget(moduleName);
+                moduleDir.mkdirs();
+            }
+
+            copyTemplates(rootDir, moduleName, templates, tokens, manifest);
+            manifest.setStamp(moduleName, stamp);
+            if (manifest.isDirty()) manifest.save(rootDir);
         } catch (Exception e) {
             throw new RuntimeException("Failed to scaffold module: " + moduleName, e);
         }
     }
 
-    private static void copyTemplates(File rootDir, String moduleName, Map<String, String> tokens) throws IOException {
-        // Find the JAR location of this plugin
-        CodeSource src = ModuleGenerator.class.getProtectionDomain().getCodeSource();
-        if (src == null) return;
-
-        URL jar = src.getLocation();
-        ZipInputStream zip = new ZipInputStream(jar.openStream());
+    private static String stamp(Map<String, String> tokens) {
+        StringBuilder builder = new StringBuilder(String.valueOf(ModuleGenerator.class.getPackage().getImplementationVersion()));
+        new TreeMap<>(tokens).forEach((key, value) -> builder.append('\n').append(key).append('=').append(value));
+        return Hashing.sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
 
-        String prefix = "templates/" + moduleName + "/";
+    private static void copyTemplates(File rootDir, String moduleName, List<TemplateStore.Template> templates,
+                                      Map<String, String> tokens, ScaffoldManifest manifest) throws IOException {
+        for (TemplateStore.Template template : templates) {
+            String relativePath = template.getPath();
 
-        while (true) {
-            ZipEntry e = zip.getNextEntry();
-            if (e == null) break;
+            // Handle Dynamic Paths (__package__ -> com/chaotic_loom/warp)
+            if (relativePath.contains("__package__")) {
+                String packagePath = tokens.get("GROUP").replace(".", "/");
+                relativePath = relativePath.replace("__package__", packagePath);
+            }
+            if (relativePath.contains("__mod_id__")) {
+                relativePath = relativePath.replace("__mod_id__", tokens.get("MOD_ID"));
+            }
 
-            String path = e.getName();
+            // Handle File Extension (remove .txt)
+            if (relativePath.endsWith(".txt")) {
+                relativePath = relativePath.substring(0, relativePath.length() - 4);
+            }
 
-            // Files inside templates/<moduleName>/
-            if (path.startsWith(prefix) && !e.isDirectory()) {
+            // Create Target File
+            File targetFile = new File(new File(rootDir, moduleName), relativePath);
+            String manifestPath = moduleName + "/" + relativePath;
 
-                // Calculate Relative Path (remove "templates/fabric/")
-                String relativePath = path.substring(prefix.length());
+            // Render once into a digest to decide whether the file needs writing at all
+            CompiledTemplate compiled = template.getCompiled();
+            String hash = hashRendered(compiled, tokens);
 
-                // Handle Dynamic Paths (__package__ -> com/chaotic_loom/warp)
-                if (relativePath.contains("__package__")) {
-                    String packagePath = tokens.get("GROUP").replace(".", "/");
-                    relativePath = relativePath.replace("__package__", packagePath);
+            String recorded = manifest.getHash(manifestPath);
+            if (targetFile.exists()) {
+                String current = Hashing.sha256(targetFile.toPath());
+                if (current.equals(hash)) {
+                    manifest.record(manifestPath, hash);
+                    continue;
                 }
-                if (relativePath.contains("__mod_id__")) {
-                    relativePath = relativePath.replace("__mod_id__", tokens.get("MOD_ID"));
+                if (!current.equals(recorded)) {
+                    LOGGER.info("Orchestrator: Keeping user-modified " + manifestPath);
+                    continue;
                 }
+            } else if (recorded != null) {
+                LOGGER.info("Orchestrator: Not restoring user-deleted " + manifestPath);
+                continue;
+            }
 
-                // Handle File Extension (remove .txt)
-                if (relativePath.endsWith(".txt")) {
-                    relativePath = relativePath.substring(0, relativePath.length() - 4);
-                }
-
-                // Create Target File
-                File targetFile = new File(new File(rootDir, moduleName), relativePath);
-                targetFile.getParentFile().mkdirs();
-
-                // Read, Replace, Write
-                processAndWriteFile(zip, targetFile, tokens);
+            targetFile.getParentFile().mkdirs();
+            try (Writer writer = Files.newBufferedWriter(targetFile.toPath(), StandardCharsets.UTF_8)) {
+                compiled.render(tokens, writer);
             }
+            manifest.record(manifestPath, hash);
+            LOGGER.info("Orchestrator: Scaffolded " + manifestPath);
         }
     }
 
-    private static void processAndWriteFile(InputStream sourceStream, File target, Map<String, String> tokens) throws IOException {
-        // Read the template
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int nRead;
-        while ((nRead = sourceStream.read(data, 0, data.length)) != -1) {
-            buffer.write(data, 0, nRead);
+    private static String hashRendered(CompiledTemplate template, Map<String, String> tokens) throws IOException {
+        MessageDigest digest = Hashing.newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8)) {
+            template.render(tokens, writer);
         }
-
-        String content = buffer.toString(StandardCharsets.UTF_8);
-
-        // Replace {{ VAR }} using Regex
-        Matcher matcher = VARIABLE_PATTERN.matcher(content);
-        StringBuilder sb = new StringBuilder();
-
-        while (matcher.find()) {
-            String key = matcher.group(1); // The text inside {{ }}
-            String value = tokens.getOrDefault(key, matcher.group(0)); // Default to original if missing
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(value));
-        }
-        matcher.appendTail(sb);
-
-        // Write to disk
-        Files.writeString(target.toPath(), sb.toString());
+        return Hashing.hex(digest.digest());
     }
 
-    public static void manageModule(Settings settings, String name, boolean enabled, boolean hasConfig, Map<String, String> tokens) {
+    /**
+     * Includes {@code name} when enabled and drops it otherwise.
+     *
+     * @return whether the module is part of the build
+     */
+    public static boolean manageModule(Settings settings, String name, boolean enabled) {
         if (enabled) {
             settings.include(name);
-            if (hasConfig) {
-                ModuleGenerator.generate(settings.getRootDir(), name, tokens);
-            }
         } else {
             settings.getRootProject().getChildren().removeIf(child -> child.getName().equals(name));
         }
+        return enabled;
     }
-}
\ No newline at end of file
+}
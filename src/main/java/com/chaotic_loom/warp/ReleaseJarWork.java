@@ -0,0 +1,154 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Worker side of {@link WarpReleaseJarTask}.
+ */
+public abstract class ReleaseJarWork implements WorkAction<ReleaseJarWork.Params> {
+    static final List<String> DEV_ONLY = Arrays.asList(
+            "**/*.psd", "**/*.xcf", "**/*.kra", "**/*.bbmodel", "**/*.blend",
+            "**/.gitkeep", "**/.DS_Store", "**/Thumbs.db");
+
+    private static final Logger LOGGER = Logging.getLogger(ReleaseJarWork.class);
+
+    // Same constant timestamp Gradle uses for reproducible archives: 1980-02-01 00:00 local time
+    private static final long FIXED_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    public interface Params extends WorkParameters {
+        RegularFileProperty getInputJar();
+        RegularFileProperty getOutputJar();
+        ListProperty<String> getExcludes();
+        Property<Boolean> getMinifyJson();
+        Property<Integer> getCompressionLevel();
+    }
+
+    @Override
+    public void execute() {
+        File input = getParameters().getInputJar().get().getAsFile();
+        File output = getParameters().getOutputJar().get().getAsFile();
+        List<Pattern> excludes = new ArrayList<>();
+        for (String pattern : getParameters().getExcludes().get()) excludes.add(toRegex(pattern));
+        boolean minify = getParameters().getMinifyJson().get();
+
+        long start = System.nanoTime();
+        int dropped = 0;
+
+        try (ZipFile zip = new ZipFile(input)) {
+            List<ZipEntry> entries = new ArrayList<>(Collections.list(zip.entries()));
+            entries.sort(Comparator.comparing(ReleaseJarWork::order).thenComparing(ZipEntry::getName));
+
+            Files.createDirectories(output.getParentFile().toPath());
+            try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output.toPath())))) {
+                out.setLevel(getParameters().getCompressionLevel().get());
+
+                for (ZipEntry entry : entries) {
+                    String name = entry.getName();
+                    if (isExcluded(name, excludes)) {
+                        dropped++;
+                        continue;
+                    }
+
+                    ZipEntry copy = new ZipEntry(name);
+                    copy.setTime(FIXED_TIME);
+                    out.putNextEntry(copy);
+
+                    if (!entry.isDirectory()) {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            if (minify && isJson(name)) {
+                                writeMinified(in, out, name);
+                            } else {
+                                in.transferTo(out);
+                            }
+                        }
+                    }
+                    out.closeEntry();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build release jar from " + input, e);
+        }
+
+        LOGGER.lifecycle("Orchestrator: Packed " + output.getName() + " (" + input.length() / 1024 + " KiB -> "
+                + output.length() / 1024 + " KiB, " + dropped + " dev-only entries dropped) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * The manifest goes first so {@code JarInputStream} still finds it.
+     */
+    private static int order(ZipEntry entry) {
+        if (entry.getName().equals("META-INF/")) return 0;
+        if (entry.getName().equals(MANIFEST)) return 1;
+        return 2;
+    }
+
+    private static boolean isJson(String name) {
+        return name.endsWith(".json") || name.endsWith(".mcmeta");
+    }
+
+    /**
+     * Minifies when the entry parses as JSON and copies it untouched otherwise.
+     */
+    private static void writeMinified(InputStream in, OutputStream out, String name) throws IOException {
+        byte[] original = in.readAllBytes();
+
+        StringWriter minified = new StringWriter(original.length);
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(original), StandardCharsets.UTF_8)) {
+            MetadataExpander.minifyJson(reader, minified);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Orchestrator: Keeping " + name + " as is, it is not plain JSON");
+            out.write(original);
+            return;
+        }
+        out.write(minified.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isExcluded(String name, List<Pattern> excludes) {
+        for (Pattern pattern : excludes) {
+            if (pattern.matcher(name).matches()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ant-style pattern to regex: {@code **}/ matches any number of directories, {@code *} and
+     * {@code ?} stay within one path segment.
+     */
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (pattern.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (pattern.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,95 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Record of what Warp scaffolded into a workspace, stored in {@code .warp/scaffold.json}.
+ * Each generated file is kept with the hash of the content Warp wrote, so later runs can tell
+ * untouched files (safe to update) from files the user edited (never overwritten). Each module is
+ * kept with a stamp of the tokens it was last reconciled with.
+ */
+public class ScaffoldManifest {
+    private static final String PATH = ".warp/scaffold.json";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private Map<String, String> modules = new TreeMap<>();
+    private Map<String, String> files = new TreeMap<>();
+    private transient boolean dirty;
+
+    public static ScaffoldManifest load(File rootDir) {
+        File file = new File(rootDir, PATH);
+        if (!file.isFile()) return new ScaffoldManifest();
+
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            ScaffoldManifest manifest = GSON.fromJson(reader, ScaffoldManifest.class);
+            if (manifest == null) return new ScaffoldManifest();
+            if (manifest.modules == null) manifest.modules = new TreeMap<>();
+            if (manifest.files == null) manifest.files = new TreeMap<>();
+            return manifest;
+        } catch (Exception e) {
+            // A broken manifest only costs us the ability to update files, never user edits
+            return new ScaffoldManifest();
+        }
+    }
+
+    public void save(File rootDir) throws IOException {
+        File file = new File(rootDir, PATH);
+        file.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(this, writer);
+        }
+        dirty = false;
+    }
+
+    /**
+     * Whether anything was recorded or forgotten since the manifest was loaded or saved.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public String getHash(String path) {
+        return files.get(path);
+    }
+
+    public void record(String path, String hash) {
+        if (!hash.equals(files.put(path, hash))) dirty = true;
+    }
+
+    /**
+     * Drops everything recorded for {@code module}, so it is scaffolded as if it were new.
+     */
+    public void forget(String module) {
+        if (files.keySet().removeIf(path -> path.startsWith(module + "/"))) dirty = true;
+        if (modules.remove(module) != null) dirty = true;
+    }
+
+    public String getStamp(String module) {
+        return modules.get(module);
+    }
+
+    public void setStamp(String module, String stamp) {
+        if (!stamp.equals(modules.put(module, stamp))) dirty = true;
+    }
+
+    /**
+     * Stable summary of the files recorded for {@code module}, used as the scaffolding's cache key.
+     */
+    public String fingerprint(String module) {
+        StringBuilder builder = new StringBuilder();
+        files.forEach((path, hash) -> {
+            if (path.startsWith(module + "/")) builder.append(path).append('=').append(hash).append('\n');
+        });
+        return Hashing.sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,35 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.io.File;
+
+/**
+ * Scaffolds a module while the settings are evaluated.
+ * <p>
+ * Running the generator as a value source keeps the files it probes and writes out of the
+ * configuration cache inputs; the cache only checks that the scaffolded result is unchanged.
+ * Otherwise creating a module would invalidate the entry that was stored in the same build.
+ */
+public abstract class ScaffoldSource implements ValueSource<String, ScaffoldSource.Params> {
+    public interface Params extends ValueSourceParameters {
+        DirectoryProperty getRootDirectory();
+        Property<String> getModuleName();
+        MapProperty<String, String> getTokens();
+        Property<Boolean> getIncremental();
+    }
+
+    @Override
+    public String obtain() {
+        Params params = getParameters();
+        File rootDir = params.getRootDirectory().get().getAsFile();
+        String module = params.getModuleName().get();
+
+        ModuleGenerator.generate(rootDir, module, params.getTokens().get(), params.getIncremental().get());
+        return ScaffoldManifest.load(rootDir).fingerprint(module);
+    }
+}
@@ -0,0 +1,285 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Machine-wide cache of the mapping trees and remapped Minecraft jars Loom produces in a
+ * workspace's {@code .gradle/loom-cache}, shared by every Warp workspace on the agent.
+ * <p>
+ * Entries live in {@code <gradle user home>/caches/warp/loom/<key>}, keyed by Minecraft version,
+ * mapping layers and Loom version. A workspace is seeded from its entry before Loom runs, and
+ * new files are published to the entry when a build finishes without failures. An entry only
+ * holds the files under its own Minecraft version's directories, so workspaces building several
+ * versions don't copy every version into every entry. Each file is
+ * written to a temporary name and atomically renamed under a file lock, and the least recently
+ * used entries are evicted once the cache grows past its size cap.
+ */
+public abstract class SharedLoomCache implements BuildService<SharedLoomCache.Params>, OperationCompletionListener, AutoCloseable {
+    public static final String NAME = "warpSharedLoomCache";
+
+    private static final Logger LOGGER = Logging.getLogger(SharedLoomCache.class);
+    private static final Object JVM_LOCK = new Object();
+
+    public interface Params extends BuildServiceParameters {
+        DirectoryProperty getCacheDirectory();
+        Property<Long> getMaxSizeBytes();
+    }
+
+    private final Map<String, Workspace> workspaces = new HashMap<>();
+    private volatile boolean failed;
+
+    /**
+     * Cache key for one Minecraft version, mapping stack and Loom build.
+     */
+    public static String key(String minecraftVersion, List<String> mappingLayers, String loomCoordinate) {
+        String layers = String.join("\n", mappingLayers);
+        return minecraftVersion + "-" + Hashing.sha256((layers + "\n" + loomCoordinate).getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /**
+     * Copies the shared entry into {@code loomCacheDir} (files already present are kept) and
+     * remembers the workspace so the entry can be published when the build finishes.
+     */
+    public synchronized void attach(String key, String minecraftVersion, File loomCacheDir) {
+        if (workspaces.containsKey(key)) return;
+        workspaces.put(key, new Workspace(loomCacheDir.toPath(), minecraftVersion));
+
+        Path entry = entry(key);
+        if (!Files.isDirectory(entry)) return;
+
+        long start = System.nanoTime();
+        try {
+            int copied = withLock(key, false, () -> copyShareable(entry, loomCacheDir.toPath(), minecraftVersion));
+            touch(entry);
+            LOGGER.lifecycle("Orchestrator: Seeded " + copied + " files from shared Loom cache " + key
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            LOGGER.warn("Orchestrator: Could not read shared Loom cache " + key, e);
+        }
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        if (event.getResult() instanceof TaskFailureResult) failed = true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (failed) return;
+
+        for (Map.Entry<String, Workspace> workspace : workspaces.entrySet()) {
+            try {
+                publish(workspace.getKey(), workspace.getValue());
+            } catch (IOException e) {
+                LOGGER.warn("Orchestrator: Could not publish shared Loom cache " + workspace.getKey(), e);
+            }
+        }
+
+        try {
+            evict();
+        } catch (IOException e) {
+            LOGGER.warn("Orchestrator: Could not trim shared Loom cache", e);
+        }
+    }
+
+    private void publish(String key, Workspace workspace) throws IOException {
+        Path loomCache = workspace.loomCache;
+        if (!Files.isDirectory(loomCache)) return;
+
+        int added = withLock(key, true, () -> {
+            Path entry = entry(key);
+            int count = 0;
+
+            try (Stream<Path> walk = Files.walk(loomCache)) {
+                for (Path source : (Iterable<Path>) walk::iterator) {
+                    if (!Files.isRegularFile(source) || !isShareable(source)) continue;
+
+                    Path relative = loomCache.relativize(source);
+                    if (!isForVersion(relative, workspace.minecraftVersion)) continue;
+
+                    // Entries only ever gain files, and each file appears atomically
+                    Path target = entry.resolve(relative.toString());
+                    if (Files.exists(target)) continue;
+
+                    Files.createDirectories(target.getParent());
+                    Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+                    try {
+                        Files.copy(source, tmp, StandardCopyOption.COPY_ATTRIBUTES);
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                        count++;
+                    } finally {
+                        Files.deleteIfExists(tmp);
+                    }
+                }
+            }
+
+            if (count > 0) touch(entry);
+            return count;
+        });
+
+        if (added > 0) LOGGER.lifecycle("Orchestrator: Published " + added + " files to shared Loom cache " + key);
+    }
+
+    private void evict() throws IOException {
+        Path root = getParameters().getCacheDirectory().get().getAsFile().toPath();
+        if (!Files.isDirectory(root)) return;
+
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path entry : stream) entries.add(entry);
+        }
+
+        Map<Path, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Path entry : entries) {
+            long size = size(entry);
+            sizes.put(entry, size);
+            total += size;
+        }
+
+        long max = getParameters().getMaxSizeBytes().get();
+        if (total <= max) return;
+
+        // Oldest access first
+        entries.sort(Comparator.comparingLong(entry -> entry.toFile().lastModified()));
+        for (Path entry : entries) {
+            if (total <= max) break;
+            String key = entry.getFileName().toString();
+            if (workspaces.containsKey(key)) continue;
+
+            Path lockFile = lockFile(key);
+            withLock(key, true, () -> {
+                deleteRecursively(entry);
+                // Still held, so a waiting process reads the entry as gone rather than half deleted
+                Files.deleteIfExists(lockFile);
+                return 0;
+            });
+            total -= sizes.get(entry);
+            LOGGER.lifecycle("Orchestrator: Evicted shared Loom cache " + key);
+        }
+    }
+
+    // --- FILE HELPERS ---
+
+    private Path entry(String key) {
+        return getParameters().getCacheDirectory().get().getAsFile().toPath().resolve(key);
+    }
+
+    private Path lockFile(String key) {
+        return getParameters().getCacheDirectory().get().getAsFile().toPath().resolve(key + ".lock");
+    }
+
+    private <T> T withLock(String key, boolean exclusive, IoAction<T> action) throws IOException {
+        Path lockFile = lockFile(key);
+        Files.createDirectories(lockFile.getParent());
+
+        synchronized (JVM_LOCK) {
+            // Closing the channel releases the lock
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.lock(0, Long.MAX_VALUE, !exclusive);
+                return action.run();
+            }
+        }
+    }
+
+    /**
+     * Only mapping trees and jars are shared. Everything else in the Loom cache (launch configs,
+     * classpath files, locks) holds workspace-specific paths.
+     */
+    private static boolean isShareable(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".jar") || name.endsWith(".tiny") || name.endsWith(".zip");
+    }
+
+    /**
+     * Whether a path in the Loom cache belongs to {@code minecraftVersion}: one of its directory or
+     * file names carries the version on its own, e.g. {@code minecraft-merged/1.20.1-loom.mappings...},
+     * but not {@code 1.20.10}.
+     */
+    static boolean isForVersion(Path relative, String minecraftVersion) {
+        for (Path part : relative) {
+            String name = part.toString();
+            for (int at = name.indexOf(minecraftVersion); at >= 0; at = name.indexOf(minecraftVersion, at + 1)) {
+                int end = at + minecraftVersion.length();
+                boolean startsClean = at == 0 || !isVersionChar(name.charAt(at - 1));
+                boolean endsClean = end == name.length() || !Character.isDigit(name.charAt(end))
+                        && !(name.charAt(end) == '.' && end + 1 < name.length() && Character.isDigit(name.charAt(end + 1)));
+                if (startsClean && endsClean) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVersionChar(char c) {
+        return Character.isDigit(c) || c == '.';
+    }
+
+    private static int copyShareable(Path from, Path to, String minecraftVersion) throws IOException {
+        int copied = 0;
+        try (Stream<Path> walk = Files.walk(from)) {
+            for (Path source : (Iterable<Path>) walk::iterator) {
+                if (!Files.isRegularFile(source) || !isShareable(source)) continue;
+
+                Path relative = from.relativize(source);
+                if (!isForVersion(relative, minecraftVersion)) continue;
+
+                Path target = to.resolve(relative.toString());
+                if (Files.exists(target)) continue;
+
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    private static long size(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            return walk.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void touch(Path entry) {
+        entry.toFile().setLastModified(System.currentTimeMillis());
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static class Workspace {
+        private final Path loomCache;
+        private final String minecraftVersion;
+
+        Workspace(Path loomCache, String minecraftVersion) {
+            this.loomCache = loomCache;
+            this.minecraftVersion = minecraftVersion;
+        }
+    }
+
+    private interface IoAction<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,113 @@
+package com.chaotic_loom.warp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates bundled with the plugin, grouped by module.
+ * <p>
+ * The build packs {@code templates/index.txt} listing every template path, so each module
+ * reads only its own entries through the class loader. This works the same from the plugin
+ * jar and from an exploded classes directory.
+ */
+public class TemplateStore {
+    private static final String ROOT = "templates/";
+    private static final String INDEX = ROOT + "index.txt";
+
+    private static volatile Map<String, List<String>> index;
+    private static final Map<String, List<Template>> modules = new ConcurrentHashMap<>();
+
+    public static List<Template> forModule(String moduleName) {
+        return modules.computeIfAbsent(moduleName, TemplateStore::readModule);
+    }
+
+    private static List<Template> readModule(String moduleName) {
+        List<String> paths = loadIndex().getOrDefault(moduleName, Collections.emptyList());
+        List<Template> templates = new ArrayList<>(paths.size());
+
+        for (String relativePath : paths) {
+            String resource = ROOT + moduleName + "/" + relativePath;
+            try (InputStream in = openResource(resource)) {
+                templates.add(new Template(relativePath, in.readAllBytes()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read Warp template " + resource, e);
+            }
+        }
+        return Collections.unmodifiableList(templates);
+    }
+
+    private static Map<String, List<String>> loadIndex() {
+        Map<String, List<String>> loaded = index;
+        if (loaded == null) {
+            synchronized (TemplateStore.class) {
+                loaded = index;
+                if (loaded == null) {
+                    loaded = readIndex();
+                    index = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static Map<String, List<String>> readIndex() {
+        Map<String, List<String>> result = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(openResource(INDEX), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+
+                // <module>/<relative path>
+                int slash = line.indexOf('/');
+                if (slash < 0) continue;
+
+                result.computeIfAbsent(line.substring(0, slash), k -> new ArrayList<>()).add(line.substring(slash + 1));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Warp template index", e);
+        }
+        return result;
+    }
+
+    private static InputStream openResource(String name) throws IOException {
+        InputStream in = TemplateStore.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) throw new IOException("Missing plugin resource " + name);
+        return in;
+    }
+
+    public static class Template {
+        private final String path;
+        private final byte[] content;
+        private volatile CompiledTemplate compiled;
+
+        public Template(String path, byte[] content) {
+            this.path = path;
+            this.content = content;
+        }
+
+        /**
+         * Path relative to the module directory, still containing {@code __package__} style markers.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * The parsed template, compiled on first use and reused by every module and run in this JVM.
+         */
+        public CompiledTemplate getCompiled() {
+            CompiledTemplate result = compiled;
+            if (result == null) {
+                result = CompiledTemplate.compile(new String(content, StandardCharsets.UTF_8));
+                compiled = result;
+            }
+            return result;
+        }
+    }
+}
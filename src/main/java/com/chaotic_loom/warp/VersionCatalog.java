@@ -0,0 +1,91 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Default versions bundled in {@code versions.json}, parsed once per JVM and indexed by
+ * {@link MinecraftVersion} so callers can do exact and nearest lookups.
+ */
+public class VersionCatalog {
+    private final NavigableMap<MinecraftVersion, Entry> entries;
+
+    private VersionCatalog(NavigableMap<MinecraftVersion, Entry> entries) {
+        this.entries = Collections.unmodifiableNavigableMap(entries);
+    }
+
+    public static VersionCatalog get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Defaults for exactly this Minecraft version, or {@code null}.
+     */
+    public Entry exact(MinecraftVersion version) {
+        return entries.get(version);
+    }
+
+    /**
+     * Defaults for the newest catalogued Minecraft version not newer than {@code version}, or {@code null}.
+     */
+    public Map.Entry<MinecraftVersion, Entry> floor(MinecraftVersion version) {
+        return entries.floorEntry(version);
+    }
+
+    private static VersionCatalog load() {
+        try (InputStream in = VersionCatalog.class.getResourceAsStream("/versions.json")) {
+            if (in == null) throw new IllegalStateException("versions.json is missing from the plugin");
+
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                Map<String, Entry> data = new Gson().fromJson(reader, new TypeToken<Map<String, Entry>>() {}.getType());
+
+                NavigableMap<MinecraftVersion, Entry> entries = new TreeMap<>();
+                data.forEach((version, entry) -> entries.put(MinecraftVersion.of(version), entry));
+                return new VersionCatalog(entries);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Warp: Failed to load default version data.", e);
+        }
+    }
+
+    private static class Holder {
+        private static final VersionCatalog INSTANCE = load();
+    }
+
+    public static class Entry {
+        private String fabric;
+        private String forge;
+        private String neoforge;
+        private String parchment;
+
+        @SerializedName("fabric_loader")
+        private String fabricLoader;
+
+        @SerializedName("minecraft_range")
+        private String minecraftRange;
+        @SerializedName("forge_loader_range")
+        private String forgeLoaderRange;
+        @SerializedName("neoforge_loader_range")
+        private String neoForgeLoaderRange;
+
+        @SerializedName("java_version")
+        private String javaVersion;
+
+        public String getFabric() { return fabric; }
+        public String getForge() { return forge; }
+        public String getNeoForge() { return neoforge; }
+        public String getParchment() { return parchment; }
+        public String getFabricLoader() { return fabricLoader; }
+        public String getMinecraftRange() { return minecraftRange; }
+        public String getForgeLoaderRange() { return forgeLoaderRange; }
+        public String getNeoForgeLoaderRange() { return neoForgeLoaderRange; }
+        public String getJavaVersion() { return javaVersion; }
+    }
+}
@@ -0,0 +1,417 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.provider.Property;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Immutable snapshot of the {@link WarpExtension} taken once settings are evaluated.
+ * Module configuration only reads from this snapshot, so everything captured by
+ * tasks and callbacks is plain serializable data and safe for the configuration cache.
+ */
+public final class WarpConfig implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final String LOOM_MODULE = "net.fabricmc:fabric-loom";
+    private static final String FABRIC_LOADER_MODULE = "net.fabricmc:fabric-loader";
+
+    private final String minecraftVersion;
+
+    private final String fabricVersion;
+    private final String forgeVersion;
+    private final String neoForgeVersion;
+    private final String parchmentVersion;
+
+    private final String modId;
+    private final String modGroup;
+    private final String modVersion;
+    private final String modName;
+
+    private final String license;
+    private final String credits;
+    private final String modAuthor;
+    private final String description;
+
+    private final String minecraftVersionRange;
+    private final String forgeLoaderVersionRange;
+    private final String neoForgeLoaderVersionRange;
+    private final String fabricLoaderVersion;
+    private final boolean fabricLoaderFromCatalog;
+    private final String javaVersion;
+
+    private final boolean incrementalScaffolding;
+
+    private final boolean lazyLoaders;
+
+    private final boolean sharedCache;
+    private final int sharedCacheSizeMb;
+
+    private final boolean offline;
+    private final String mirrorDirectory;
+
+    private final boolean minifyMetadata;
+
+    private final boolean appCds;
+
+    private final int releaseCompressionLevel;
+
+    private final String loomVersion;
+    private final WarpLock lock;
+
+    private final List<String> matrixVersions;
+
+    private WarpConfig(WarpExtension ext, WarpLock lock) {
+        this.minecraftVersion = valueOf(ext.getMinecraftVersion());
+
+        this.fabricVersion = valueOf(ext.getFabricVersion());
+        this.forgeVersion = valueOf(ext.getForgeVersion());
+        this.neoForgeVersion = valueOf(ext.getNeoForgeVersion());
+        this.parchmentVersion = valueOf(ext.getParchmentVersion());
+
+        this.modId = valueOf(ext.getModId());
+        this.modGroup = valueOf(ext.getModGroup());
+        this.modVersion = valueOf(ext.getModVersion());
+        this.modName = valueOf(ext.getModName());
+
+        this.license = valueOf(ext.getLicense());
+        this.credits = valueOf(ext.getCredits());
+        this.modAuthor = valueOf(ext.getModAuthor());
+        this.description = valueOf(ext.getDescription());
+
+        this.minecraftVersionRange = valueOf(ext.getMinecraftVersionRange());
+        this.forgeLoaderVersionRange = valueOf(ext.getForgeLoaderVersionRange());
+        this.neoForgeLoaderVersionRange = valueOf(ext.getNeoForgeLoaderVersionRange());
+        this.fabricLoaderVersion = valueOf(ext.getFabricLoaderVersion());
+        this.fabricLoaderFromCatalog = ext.isFabricLoaderFromCatalog();
+        this.javaVersion = valueOf(ext.getJavaVersion());
+
+        this.incrementalScaffolding = ext.getIncrementalScaffolding().getOrElse(false);
+
+        this.lazyLoaders = ext.getLazyLoaders().getOrElse(false);
+
+        this.sharedCache = ext.getSharedCache().getOrElse(false);
+        this.sharedCacheSizeMb = ext.getSharedCacheSizeMb().getOrElse(4096);
+
+        this.offline = ext.getOffline().getOrElse(false);
+        this.mirrorDirectory = ext.getMirrorDirectory().getOrElse(".warp/mirror");
+
+        this.minifyMetadata = ext.getMinifyMetadata().getOrElse(false);
+
+        this.appCds = ext.getAppCds().getOrElse(false);
+
+        this.releaseCompressionLevel = ext.getReleaseCompressionLevel().getOrElse(9);
+        if (releaseCompressionLevel < 0 || releaseCompressionLevel > 9) {
+            throw new IllegalArgumentException("releaseCompressionLevel must be between 0 and 9, was " + releaseCompressionLevel);
+        }
+
+        this.loomVersion = ext.getLoomVersion().getOrElse("1.9-SNAPSHOT");
+        this.lock = lock;
+
+        List<String> versions = new ArrayList<>();
+        for (String version : ext.getMinecraftVersions().getOrElse(Collections.emptyList())) {
+            if (!version.equals(minecraftVersion) && !versions.contains(version)) versions.add(version);
+        }
+        this.matrixVersions = Collections.unmodifiableList(versions);
+    }
+
+    /**
+     * Copy of {@code base} for another Minecraft version. Version-specific values come from the
+     * catalog entry for that version; mod metadata and build options are shared. A Fabric Loader
+     * set in {@code warp { }} works across versions, so it is kept, and pinned by the same lock entry.
+     */
+    private WarpConfig(WarpConfig base, String minecraftVersion, VersionCatalog.Entry defaults) {
+        this.minecraftVersion = minecraftVersion;
+
+        this.fabricVersion = defaults.getFabric();
+        this.forgeVersion = defaults.getForge();
+        this.neoForgeVersion = defaults.getNeoForge();
+        this.parchmentVersion = defaults.getParchment();
+
+        this.modId = base.modId;
+        this.modGroup = base.modGroup;
+        this.modVersion = base.modVersion;
+        this.modName = base.modName;
+
+        this.license = base.license;
+        this.credits = base.credits;
+        this.modAuthor = base.modAuthor;
+        this.description = base.description;
+
+        this.minecraftVersionRange = defaults.getMinecraftRange();
+        this.forgeLoaderVersionRange = defaults.getForgeLoaderRange();
+        this.neoForgeLoaderVersionRange = defaults.getNeoForgeLoaderRange();
+        this.fabricLoaderVersion = base.fabricLoaderFromCatalog
+                ? orElse(defaults.getFabricLoader(), base.fabricLoaderVersion)
+                : base.fabricLoaderVersion;
+        this.fabricLoaderFromCatalog = base.fabricLoaderFromCatalog;
+        this.javaVersion = defaults.getJavaVersion();
+
+        this.incrementalScaffolding = base.incrementalScaffolding;
+
+        this.lazyLoaders = base.lazyLoaders;
+
+        this.sharedCache = base.sharedCache;
+        this.sharedCacheSizeMb = base.sharedCacheSizeMb;
+
+        this.offline = base.offline;
+        this.mirrorDirectory = base.mirrorDirectory;
+
+        this.minifyMetadata = base.minifyMetadata;
+
+        this.appCds = base.appCds;
+
+        this.releaseCompressionLevel = base.releaseCompressionLevel;
+
+        this.loomVersion = base.loomVersion;
+        this.lock = base.lock;
+
+        this.matrixVersions = Collections.emptyList();
+    }
+
+    public static WarpConfig from(WarpExtension extension) {
+        return new WarpConfig(extension, null);
+    }
+
+    /**
+     * Snapshot whose Loom, Parchment and loader coordinates are pinned by {@code lock} wherever
+     * the lock still matches the configuration.
+     */
+    public static WarpConfig from(WarpExtension extension, WarpLock lock) {
+        return new WarpConfig(extension, lock);
+    }
+
+    /**
+     * The snapshot for one of the {@linkplain #getMatrixVersions() matrix versions}.
+     */
+    public WarpConfig forVersion(String version) {
+        VersionCatalog.Entry defaults = VersionCatalog.get().exact(MinecraftVersion.of(version));
+        if (defaults == null) {
+            throw new IllegalArgumentException("Warp has no catalogued defaults for Minecraft " + version
+                    + ", so it can't be built as part of the version matrix");
+        }
+        return new WarpConfig(this, version, defaults);
+    }
+
+    private static String valueOf(Property<String> property) {
+        return property.getOrNull();
+    }
+
+    public String getMinecraftVersion() { return minecraftVersion; }
+
+    public String getFabricVersion() { return fabricVersion; }
+    public String getForgeVersion() { return forgeVersion; }
+    public String getNeoForgeVersion() { return neoForgeVersion; }
+    public String getParchmentVersion() { return parchmentVersion; }
+
+    public String getModId() { return modId; }
+    public String getModGroup() { return modGroup; }
+    public String getModVersion() { return modVersion; }
+    public String getModName() { return modName; }
+
+    public String getLicense() { return license; }
+    public String getCredits() { return credits; }
+    public String getModAuthor() { return modAuthor; }
+    public String getDescription() { return description; }
+
+    public String getMinecraftVersionRange() { return minecraftVersionRange; }
+    public String getForgeLoaderVersionRange() { return forgeLoaderVersionRange; }
+    public String getNeoForgeLoaderVersionRange() { return neoForgeLoaderVersionRange; }
+    public String getFabricLoaderVersion() {
+        WarpLock.Entry locked = locked(WarpLock.FABRIC_LOADER);
+        return locked != null ? locked.getVersion() : fabricLoaderVersion;
+    }
+    public String getJavaVersion() { return javaVersion; }
+
+    public boolean isIncrementalScaffolding() { return incrementalScaffolding; }
+
+    public boolean isLazyLoaders() { return lazyLoaders; }
+
+    public boolean isSharedCache() { return sharedCache; }
+    public int getSharedCacheSizeMb() { return sharedCacheSizeMb; }
+
+    public boolean isOffline() { return offline; }
+
+    public boolean isMinifyMetadata() { return minifyMetadata; }
+
+    public boolean isAppCds() { return appCds; }
+
+    public int getReleaseCompressionLevel() { return releaseCompressionLevel; }
+
+    /**
+     * Extra Minecraft versions built next to {@link #getMinecraftVersion()}, without the primary one.
+     */
+    public List<String> getMatrixVersions() { return matrixVersions; }
+
+    /**
+     * The offline mirror location, resolved against the workspace root when relative.
+     */
+    public File getMirrorDirectory(File rootDir) {
+        File dir = new File(mirrorDirectory);
+        return dir.isAbsolute() ? dir : new File(rootDir, mirrorDirectory);
+    }
+
+    /**
+     * Loom plugin coordinate, e.g. {@code net.fabricmc:fabric-loom:1.9.2} once locked.
+     */
+    public String getLoomDependency() {
+        WarpLock.Entry locked = locked(WarpLock.LOOM);
+        return locked != null ? locked.getCoordinate() : LOOM_MODULE + ":" + loomVersion;
+    }
+
+    /**
+     * Expected SHA-256 of the Loom jar, or {@code null} when Loom is not locked.
+     */
+    public String getLoomSha256() {
+        WarpLock.Entry locked = locked(WarpLock.LOOM);
+        return locked != null ? locked.getSha256() : null;
+    }
+
+    /**
+     * Parchment data zip, e.g. {@code org.parchmentmc.data:parchment-1.20.1:2023.09.03@zip}.
+     */
+    public String getParchmentDependency() {
+        WarpLock.Entry locked = locked(WarpLock.PARCHMENT);
+        return locked != null ? locked.getCoordinate() : requestedParchment();
+    }
+
+    /**
+     * What the configuration asks for before {@code warp.lock} is applied, by lock entry name.
+     */
+    public Map<String, String> getRequestedArtifacts() {
+        Map<String, String> requested = new LinkedHashMap<>();
+        requested.put(WarpLock.LOOM, LOOM_MODULE + ":" + loomVersion);
+        requested.put(WarpLock.PARCHMENT, requestedParchment());
+        if (fabricLoaderVersion != null) requested.put(WarpLock.FABRIC_LOADER, FABRIC_LOADER_MODULE + ":" + fabricLoaderVersion);
+        return requested;
+    }
+
+    /**
+     * Lock entries that no longer match the configuration and are being ignored.
+     */
+    public Map<String, String> getStaleLockEntries() {
+        Map<String, String> stale = new LinkedHashMap<>();
+        if (lock == null) return stale;
+
+        getRequestedArtifacts().forEach((name, requested) -> {
+            WarpLock.Entry entry = lock.get(name);
+            if (entry != null && !requested.equals(entry.getRequested())) stale.put(name, entry.getRequested());
+        });
+        return stale;
+    }
+
+    private WarpLock.Entry locked(String name) {
+        if (lock == null) return null;
+        String requested = getRequestedArtifacts().get(name);
+        return requested != null ? lock.find(name, requested) : null;
+    }
+
+    private String requestedParchment() {
+        String parchmentRaw = parchmentVersion != null ? parchmentVersion : "2023.09.03";
+
+        // Handle "1.20.1:2023.09.03" -> "2023.09.03"
+        String parchmentDate = parchmentRaw.contains(":")
+                ? parchmentRaw.substring(parchmentRaw.lastIndexOf(":") + 1)
+                : parchmentRaw;
+
+        return "org.parchmentmc.data:parchment-" + minecraftVersion + ":" + parchmentDate + "@zip";
+    }
+
+    public boolean hasMinecraftVersion() {
+        return minecraftVersion != null && !minecraftVersion.isEmpty();
+    }
+
+    /**
+     * Scaffolding tokens, or {@code null} when the mod group or id is missing.
+     */
+    public Map<String, String> createTokens() {
+        if (modGroup == null || modId == null) return null;
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("MOD_ID", modId);
+        tokens.put("GROUP", modGroup);
+        tokens.put("PACKAGE", modGroup + "." + modId);
+        return tokens;
+    }
+
+    /**
+     * Values expanded into loader metadata files during resource processing.
+     */
+    public Map<String, String> createReplacements() {
+        Map<String, String> replacements = new HashMap<>();
+
+        replacements.put("mod_id", modId);
+        replacements.put("mod_name", orElse(modName, "Warp Mod"));
+        replacements.put("version", orElse(modVersion, "1.0.0"));
+        replacements.put("group", modGroup);
+        replacements.put("java_version", orElse(javaVersion, "17"));
+
+        replacements.put("description", orElse(description, ""));
+
+        String author = orElse(modAuthor, "");
+        replacements.put("author", author);
+        replacements.put("mod_author", author);
+
+        replacements.put("license", orElse(license, ""));
+
+        replacements.put("minecraft_version", minecraftVersion);
+        replacements.put("fabric_loader_version", orElse(getFabricLoaderVersion(), "0.16.9"));
+
+        return replacements;
+    }
+
+    /**
+     * Two snapshots are equal when every configured value and the lock match, which makes the
+     * snapshot usable as a key for {@link WarpMemo}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WarpConfig)) return false;
+        WarpConfig that = (WarpConfig) o;
+        return Objects.equals(minecraftVersion, that.minecraftVersion) &&
+                Objects.equals(fabricVersion, that.fabricVersion) &&
+                Objects.equals(forgeVersion, that.forgeVersion) &&
+                Objects.equals(neoForgeVersion, that.neoForgeVersion) &&
+                Objects.equals(parchmentVersion, that.parchmentVersion) &&
+                Objects.equals(modId, that.modId) &&
+                Objects.equals(modGroup, that.modGroup) &&
+                Objects.equals(modVersion, that.modVersion) &&
+                Objects.equals(modName, that.modName) &&
+                Objects.equals(license, that.license) &&
+                Objects.equals(credits, that.credits) &&
+                Objects.equals(modAuthor, that.modAuthor) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(minecraftVersionRange, that.minecraftVersionRange) &&
+                Objects.equals(forgeLoaderVersionRange, that.forgeLoaderVersionRange) &&
+                Objects.equals(neoForgeLoaderVersionRange, that.neoForgeLoaderVersionRange) &&
+                Objects.equals(fabricLoaderVersion, that.fabricLoaderVersion) &&
+                fabricLoaderFromCatalog == that.fabricLoaderFromCatalog &&
+                Objects.equals(javaVersion, that.javaVersion) &&
+                incrementalScaffolding == that.incrementalScaffolding &&
+                lazyLoaders == that.lazyLoaders &&
+                sharedCache == that.sharedCache &&
+                sharedCacheSizeMb == that.sharedCacheSizeMb &&
+                offline == that.offline &&
+                Objects.equals(mirrorDirectory, that.mirrorDirectory) &&
+                minifyMetadata == that.minifyMetadata &&
+                appCds == that.appCds &&
+                releaseCompressionLevel == that.releaseCompressionLevel &&
+                Objects.equals(loomVersion, that.loomVersion) &&
+                Objects.equals(lock, that.lock) &&
+                Objects.equals(matrixVersions, that.matrixVersions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minecraftVersion, fabricVersion, forgeVersion, neoForgeVersion, parchmentVersion, modId,
+                modGroup, modVersion, modName, license, credits, modAuthor, description, minecraftVersionRange,
+                forgeLoaderVersionRange, neoForgeLoaderVersionRange, fabricLoaderVersion, fabricLoaderFromCatalog, javaVersion, incrementalScaffolding,
+                lazyLoaders, sharedCache, sharedCacheSizeMb, offline, mirrorDirectory, minifyMetadata, appCds,
+                releaseCompressionLevel, loomVersion, lock, matrixVersions);
+    }
+
+    private static String orElse(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+}
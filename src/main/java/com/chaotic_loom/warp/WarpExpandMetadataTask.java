@@ -0,0 +1,101 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Expands {@code ${key}} placeholders in loader metadata ({@code fabric.mod.json}, mixin configs,
+ * {@code mods.toml}, ...) into a separate directory that {@code processResources} then copies.
+ * Inputs are relative paths and plain values, so results are shared through the build cache
+ * across checkouts.
+ */
+@CacheableTask
+public abstract class WarpExpandMetadataTask extends DefaultTask {
+    /**
+     * Resource directories to pick metadata files from.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSourceDirectories();
+
+    /**
+     * Patterns, relative to a resource directory, of the files to expand.
+     */
+    @Input
+    public abstract ListProperty<String> getIncludes();
+
+    @Input
+    public abstract MapProperty<String, String> getReplacements();
+
+    @Input
+    public abstract Property<Boolean> getMinifyJson();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    public WarpExpandMetadataTask() {
+        setGroup("warp");
+        setDescription("Expands Warp's values into the loader metadata files.");
+        getMinifyJson().convention(false);
+    }
+
+    @InputFiles
+    @SkipWhenEmpty
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileTree getMetadataFiles() {
+        return getSourceDirectories().getAsFileTree().matching(pattern -> pattern.include(getIncludes().get()));
+    }
+
+    @TaskAction
+    public void expand() throws IOException {
+        File outputDir = getOutputDirectory().get().getAsFile();
+        getFileSystemOperations().delete(spec -> spec.delete(outputDir));
+        Files.createDirectories(outputDir.toPath());
+
+        Map<String, String> replacements = getReplacements().get();
+        boolean minify = getMinifyJson().get();
+
+        getMetadataFiles().visit(details -> {
+            if (details.isDirectory()) return;
+            try {
+                expandFile(details, new File(outputDir, details.getPath()), replacements, minify);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to expand " + details.getPath(), e);
+            }
+        });
+    }
+
+    private static void expandFile(FileVisitDetails source, File target, Map<String, String> replacements, boolean minify) throws IOException {
+        Files.createDirectories(target.getParentFile().toPath());
+
+        try (Reader reader = MetadataExpander.expand(Files.newBufferedReader(source.getFile().toPath(), StandardCharsets.UTF_8), replacements);
+             Writer writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            if (minify && source.getName().endsWith(".json")) {
+                MetadataExpander.minifyJson(reader, writer);
+            } else {
+                reader.transferTo(writer);
+            }
+        }
+    }
+}
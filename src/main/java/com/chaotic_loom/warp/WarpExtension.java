@@ -1,15 +1,18 @@
 package com.chaotic_loom.warp;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.util.Map;
 
 public abstract class WarpExtension {
+    private static final Logger LOGGER = Logging.getLogger(WarpExtension.class);
+
     public abstract Property<String> getMinecraftVersion();
+    // Further versions built alongside, as common-<version> and fabric-<version>
+    public abstract ListProperty<String> getMinecraftVersions();
 
     public abstract Property<String> getFabricVersion();
     public abstract Property<String> getForgeVersion();
@@ -34,39 +37,88 @@ public abstract class WarpExtension {
     public abstract Property<String> getFabricLoaderVersion();
     public abstract Property<String> getJavaVersion();
 
+    // Scaffolding
+    public abstract Property<Boolean> getIncrementalScaffolding();
+
+    // Only configure loader modules whose tasks were requested
+    public abstract Property<Boolean> getLazyLoaders();
+
+    // Machine-wide cache of Loom mappings and remapped Minecraft jars
+    public abstract Property<Boolean> getSharedCache();
+    public abstract Property<Integer> getSharedCacheSizeMb();
+
+    // Offline mode
+    public abstract Property<Boolean> getOffline();
+    public abstract Property<String> getMirrorDirectory();
+
+    // Strip whitespace from expanded JSON metadata
+    public abstract Property<Boolean> getMinifyMetadata();
+
+    // AppCDS archives for runServer and runClient
+    public abstract Property<Boolean> getAppCds();
+
+    // Deflate level (0-9) of the warpRelease jars
+    public abstract Property<Integer> getReleaseCompressionLevel();
+
+    // Loom build, pinned further by warp.lock
+    public abstract Property<String> getLoomVersion();
+
+    private boolean fabricLoaderFromCatalog;
+
+    /**
+     * Whether {@link #applyDefaults()} filled in the Fabric Loader version, rather than the build script.
+     */
+    public boolean isFabricLoaderFromCatalog() {
+        return fabricLoaderFromCatalog;
+    }
+
     public void applyDefaults() {
         String mc = getMinecraftVersion().getOrElse("");
         if (mc.isEmpty())
             return;
 
-        Gson gson = new Gson();
-        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream("/versions.json"))) {
-            Map<String, Map<String, String>> data = gson.fromJson(reader, new TypeToken<Map<String, Map<String, String>>>() {}.getType());
-            Map<String, String> defaults = data.get(mc);
-
-            if (defaults != null) {
-                // Loader versions
-                applyIfMissing(getFabricVersion(), defaults.get("fabric"));
-                applyIfMissing(getForgeVersion(), defaults.get("forge"));
-                applyIfMissing(getNeoForgeVersion(), defaults.get("neoforge"));
-
-                // Mappings
-                applyIfMissing(getParchmentVersion(), defaults.get("parchment"));
-
-                // Loader-specific versions
-                applyIfMissing(getFabricLoaderVersion(), defaults.get("fabric_loader"));
-
-                // Version ranges
-                applyIfMissing(getMinecraftVersionRange(), defaults.get("minecraft_range"));
-                applyIfMissing(getForgeLoaderVersionRange(), defaults.get("forge_loader_range"));
-                applyIfMissing(getNeoForgeLoaderVersionRange(), defaults.get("neoforge_loader_range"));
-
-                // Java version
-                applyIfMissing(getJavaVersion(), defaults.get("java_version"));
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Warp: Failed to load default version data.", e);
+        fabricLoaderFromCatalog = !getFabricLoaderVersion().isPresent();
+
+        VersionCatalog catalog = VersionCatalog.get();
+        MinecraftVersion version = MinecraftVersion.of(mc);
+        VersionCatalog.Entry defaults = catalog.exact(version);
+        if (defaults == null) {
+            applyNearestDefaults(catalog, version);
+            return;
         }
+
+        // Loader versions
+        applyIfMissing(getFabricVersion(), defaults.getFabric());
+        applyIfMissing(getForgeVersion(), defaults.getForge());
+        applyIfMissing(getNeoForgeVersion(), defaults.getNeoForge());
+
+        // Mappings
+        applyIfMissing(getParchmentVersion(), defaults.getParchment());
+
+        // Loader-specific versions
+        applyIfMissing(getFabricLoaderVersion(), defaults.getFabricLoader());
+
+        // Version ranges
+        applyIfMissing(getMinecraftVersionRange(), defaults.getMinecraftRange());
+        applyIfMissing(getForgeLoaderVersionRange(), defaults.getForgeLoaderRange());
+        applyIfMissing(getNeoForgeLoaderVersionRange(), defaults.getNeoForgeLoaderRange());
+
+        // Java version
+        applyIfMissing(getJavaVersion(), defaults.getJavaVersion());
+    }
+
+    /**
+     * Only the Fabric Loader works across Minecraft versions, so an uncatalogued version takes it from
+     * the nearest older catalogued one and leaves everything else to the build script.
+     */
+    private void applyNearestDefaults(VersionCatalog catalog, MinecraftVersion version) {
+        Map.Entry<MinecraftVersion, VersionCatalog.Entry> nearest = catalog.floor(version);
+        if (nearest == null)
+            return;
+
+        LOGGER.warn("Orchestrator: No catalogued defaults for Minecraft " + version + ", using the Fabric Loader of "
+                + nearest.getKey() + ". Set the loader, mappings and Java versions in warp { } yourself.");
+        applyIfMissing(getFabricLoaderVersion(), nearest.getValue().getFabricLoader());
     }
 
     private void applyIfMissing(Property<String> property, String defaultValue) {
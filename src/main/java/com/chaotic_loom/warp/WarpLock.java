@@ -0,0 +1,124 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Contents of {@code warp.lock}: the exact Loom build, Parchment data and loader versions a
+ * workspace resolves, with the SHA-256 of each artifact. Written by {@code warpLock}.
+ */
+public class WarpLock implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String FILE_NAME = "warp.lock";
+    public static final String LOOM = "loom";
+    public static final String PARCHMENT = "parchment";
+    public static final String FABRIC_LOADER = "fabricLoader";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private Map<String, Entry> artifacts = new TreeMap<>();
+
+    public static WarpLock parse(String json) {
+        WarpLock lock = GSON.fromJson(json, WarpLock.class);
+        if (lock == null || lock.artifacts == null) return new WarpLock();
+        return lock;
+    }
+
+    public void write(File file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(this, writer);
+        }
+    }
+
+    public Entry get(String name) {
+        return artifacts.get(name);
+    }
+
+    public void put(String name, String requested, String coordinate, String sha256) {
+        artifacts.put(name, new Entry(requested, coordinate, sha256));
+    }
+
+    /**
+     * The locked coordinate for {@code name}, or {@code null} when there is no entry or the
+     * entry was locked for a different request (the configuration changed since).
+     */
+    public Entry find(String name, String requested) {
+        Entry entry = artifacts.get(name);
+        return entry != null && requested.equals(entry.requested) ? entry : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof WarpLock && artifacts.equals(((WarpLock) o).artifacts));
+    }
+
+    @Override
+    public int hashCode() {
+        return artifacts.hashCode();
+    }
+
+    public static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String requested;
+        private final String coordinate;
+        private final String sha256;
+
+        Entry(String requested, String coordinate, String sha256) {
+            this.requested = requested;
+            this.coordinate = coordinate;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * The notation Warp's configuration asked for when the entry was locked.
+         */
+        public String getRequested() {
+            return requested;
+        }
+
+        /**
+         * Exact dependency notation, e.g. {@code net.fabricmc:fabric-loom:1.9.2}.
+         */
+        public String getCoordinate() {
+            return coordinate;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * The version part of the coordinate, without any {@code @ext} suffix.
+         */
+        public String getVersion() {
+            String notation = coordinate.contains("@") ? coordinate.substring(0, coordinate.indexOf('@')) : coordinate;
+            return notation.substring(notation.lastIndexOf(':') + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry that = (Entry) o;
+            return Objects.equals(requested, that.requested) && Objects.equals(coordinate, that.coordinate)
+                    && Objects.equals(sha256, that.sha256);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(requested, coordinate, sha256);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves Warp's artifacts (dynamic versions included) and pins the exact results with their
+ * checksums in {@code warp.lock}.
+ */
+public abstract class WarpLockTask extends DefaultTask {
+    private static final Pattern TIMESTAMPED = Pattern.compile("-(\\d{8}\\.\\d{6}-\\d+)(?:-[^.]+)?\\.[^.]+$");
+
+    /**
+     * Lock entry name to the dependency notation to resolve, e.g. {@code loom -> net.fabricmc:fabric-loom:1.9.+}.
+     */
+    @Input
+    public abstract MapProperty<String, String> getArtifacts();
+
+    @OutputFile
+    public abstract RegularFileProperty getLockFile();
+
+    @Inject
+    protected abstract DependencyHandler getDependencyHandler();
+
+    @Inject
+    protected abstract ConfigurationContainer getConfigurationContainer();
+
+    public WarpLockTask() {
+        setGroup("warp");
+        setDescription("Resolves Loom, Parchment and loader versions and pins them in warp.lock.");
+        getOutputs().upToDateWhen(task -> false);
+        notCompatibleWithConfigurationCache("Resolves dependency graphs while executing");
+    }
+
+    @TaskAction
+    public void lock() throws IOException {
+        WarpLock lock = new WarpLock();
+
+        for (Map.Entry<String, String> artifact : getArtifacts().get().entrySet()) {
+            String notation = artifact.getValue();
+            Configuration config = getConfigurationContainer().detachedConfiguration(
+                    getDependencyHandler().create(notation)
+            );
+            config.setTransitive(false);
+
+            ResolvedArtifactResult resolved = config.getIncoming().getArtifacts().getArtifacts().stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Nothing resolved for " + notation));
+
+            ComponentIdentifier id = resolved.getId().getComponentIdentifier();
+            if (!(id instanceof ModuleComponentIdentifier)) {
+                throw new IllegalStateException(notation + " did not resolve to a module");
+            }
+
+            ModuleComponentIdentifier module = (ModuleComponentIdentifier) id;
+            String extension = notation.contains("@") ? notation.substring(notation.indexOf('@')) : "";
+            String version = exactVersion(module, resolved.getFile());
+            String exact = module.getGroup() + ":" + module.getModule() + ":" + version + extension;
+
+            lock.put(artifact.getKey(), notation, exact, Hashing.sha256(resolved.getFile().toPath()));
+            getLogger().lifecycle("Orchestrator: Locked " + artifact.getKey() + " to " + exact);
+        }
+
+        File lockFile = getLockFile().get().getAsFile();
+        lock.write(lockFile);
+    }
+
+    /**
+     * A snapshot is pinned to the timestamped build it resolved to, e.g. {@code 1.9-20241201.103012-4},
+     * which Gradle can resolve again later. Repositories that only serve the plain {@code -SNAPSHOT}
+     * file can't be locked.
+     */
+    private static String exactVersion(ModuleComponentIdentifier module, File file) {
+        String version = module.getVersion();
+        if (!version.endsWith("-SNAPSHOT")) return version;
+
+        String base = version.substring(0, version.length() - "-SNAPSHOT".length());
+        Matcher matcher = TIMESTAMPED.matcher(file.getName());
+        if (file.getName().startsWith(module.getModule() + "-" + base + "-") && matcher.find()) {
+            return base + "-" + matcher.group(1);
+        }
+
+        throw new GradleException("Cannot lock " + module.getDisplayName() + ": the repository only serves the moving"
+                + " -SNAPSHOT file, not a timestamped build. Set a release version (e.g. " + base + ".+) and run warpLock again.");
+    }
+}
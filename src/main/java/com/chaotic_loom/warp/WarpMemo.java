@@ -0,0 +1,114 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.*;
+
+/**
+ * Everything Warp derives from a {@link WarpConfig} during configuration: scaffolding tokens,
+ * metadata replacements, which loaders are enabled and the matrix variants.
+ * <p>
+ * Results are kept in a static cache keyed by the config and the plugin version, so they live
+ * as long as the daemon keeps Warp's classloader, and a warm daemon configuring an unchanged
+ * workspace computes none of them again.
+ */
+public final class WarpMemo {
+    private static final Logger LOGGER = Logging.getLogger(WarpMemo.class);
+    private static final String PLUGIN_VERSION = String.valueOf(WarpMemo.class.getPackage().getImplementationVersion());
+    private static final MinecraftVersion NEOFORGE_MINIMUM = MinecraftVersion.of("1.20.1");
+    private static final int MAX_ENTRIES = 32;
+
+    private static final Map<Key, WarpMemo> CACHE = new LinkedHashMap<Key, WarpMemo>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, WarpMemo> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final Map<String, String> tokens;
+    private final Map<String, String> replacements;
+    private final boolean fabricEnabled;
+    private final boolean forgeEnabled;
+    private final boolean neoForgeEnabled;
+    private final Map<String, WarpConfig> variants;
+
+    private WarpMemo(WarpConfig config) {
+        Map<String, String> createdTokens = config.createTokens();
+        this.tokens = createdTokens != null ? Collections.unmodifiableMap(createdTokens) : null;
+
+        Map<String, String> values = new HashMap<>();
+        config.createReplacements().forEach((key, value) -> {
+            if (value != null) values.put(key, value);
+        });
+        this.replacements = Collections.unmodifiableMap(values);
+
+        MinecraftVersion current = config.hasMinecraftVersion() ? MinecraftVersion.of(config.getMinecraftVersion()) : null;
+        this.fabricEnabled = config.getFabricVersion() != null;
+        this.forgeEnabled = config.getForgeVersion() != null;
+        this.neoForgeEnabled = config.getNeoForgeVersion() != null && current != null && current.compareTo(NEOFORGE_MINIMUM) >= 0;
+
+        Map<String, WarpConfig> matrix = new LinkedHashMap<>();
+        for (String version : config.getMatrixVersions()) matrix.put(version, config.forVersion(version));
+        this.variants = Collections.unmodifiableMap(matrix);
+    }
+
+    public static WarpMemo of(WarpConfig config) {
+        Key key = new Key(PLUGIN_VERSION, config);
+        synchronized (CACHE) {
+            WarpMemo memo = CACHE.get(key);
+            if (memo != null) {
+                LOGGER.info("Orchestrator: Reusing configuration derived in an earlier build for Minecraft " + config.getMinecraftVersion());
+                return memo;
+            }
+        }
+
+        WarpMemo memo = new WarpMemo(config);
+        synchronized (CACHE) {
+            CACHE.put(key, memo);
+        }
+        return memo;
+    }
+
+    /**
+     * Scaffolding tokens, or {@code null} when the mod group or id is missing.
+     */
+    public Map<String, String> getTokens() { return tokens; }
+
+    /**
+     * Metadata replacements, without missing values.
+     */
+    public Map<String, String> getReplacements() { return replacements; }
+
+    public boolean isFabricEnabled() { return fabricEnabled; }
+    public boolean isForgeEnabled() { return forgeEnabled; }
+    public boolean isNeoForgeEnabled() { return neoForgeEnabled; }
+
+    /**
+     * Matrix version to its config.
+     */
+    public Map<String, WarpConfig> getVariants() { return variants; }
+
+    private static final class Key {
+        private final String pluginVersion;
+        private final WarpConfig config;
+
+        Key(String pluginVersion, WarpConfig config) {
+            this.pluginVersion = pluginVersion;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return pluginVersion.equals(that.pluginVersion) && config.equals(that.config);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pluginVersion.hashCode() + config.hashCode();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Checks every mixin declared in the mod's mixin configs against the compiled classes and the
+ * compile classpath (which holds the mapped Minecraft jar), then writes
+ * {@code META-INF/warp/mixin-index.json} listing each mixin with its targets and the config's
+ * refmap. A mixin class that is missing, lacks {@code @Mixin}, or targets a class that doesn't
+ * exist fails the build instead of the game launch.
+ */
+@CacheableTask
+public abstract class WarpMixinIndexTask extends DefaultTask {
+    public static final String INDEX_PATH = "META-INF/warp/mixin-index.json";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+
+    /**
+     * Expanded mixin configs ({@code *.mixins.json}).
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getConfigDirectories();
+
+    /**
+     * Compiled classes of the mod, including common's.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getClasses();
+
+    /**
+     * Everything mixins may target.
+     */
+    @Classpath
+    public abstract ConfigurableFileCollection getTargetClasspath();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    public WarpMixinIndexTask() {
+        setGroup("warp");
+        setDescription("Verifies mixin targets and writes the mixin index.");
+    }
+
+    @InputFiles
+    @SkipWhenEmpty
+    @IgnoreEmptyDirectories
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileTree getConfigs() {
+        return getConfigDirectories().getAsFileTree().matching(pattern -> pattern.include("*.mixins.json"));
+    }
+
+    @TaskAction
+    public void index() throws IOException {
+        long start = System.nanoTime();
+
+        Map<String, File> classFiles = new HashMap<>();
+        for (File root : getClasses().getFiles()) {
+            if (!root.isDirectory()) continue;
+            try (Stream<Path> walk = Files.walk(root.toPath())) {
+                walk.filter(path -> path.toString().endsWith(".class")).forEach(path -> {
+                    String relative = root.toPath().relativize(path).toString().replace(File.separatorChar, '/');
+                    classFiles.putIfAbsent(relative.substring(0, relative.length() - ".class".length()), path.toFile());
+                });
+            }
+        }
+
+        Set<String> available = new HashSet<>(classFiles.keySet());
+        for (File entry : getTargetClasspath().getFiles()) addClasses(entry, available);
+
+        Map<String, Object> configs = new TreeMap<>();
+        List<String> problems = new ArrayList<>();
+        int mixins = 0;
+
+        for (File configFile : sorted(getConfigs().getFiles())) {
+            JsonObject config;
+            try (Reader reader = Files.newBufferedReader(configFile.toPath(), StandardCharsets.UTF_8)) {
+                config = JsonParser.parseReader(reader).getAsJsonObject();
+            }
+
+            String pkg = config.has("package") ? config.get("package").getAsString() : "";
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("package", pkg);
+            if (config.has("refmap")) entry.put("refmap", config.get("refmap").getAsString());
+
+            for (String side : Arrays.asList("mixins", "client", "server")) {
+                if (!config.has(side)) continue;
+
+                Map<String, List<String>> sideIndex = new TreeMap<>();
+                for (JsonElement name : config.getAsJsonArray(side)) {
+                    String className = (pkg.isEmpty() ? "" : pkg + ".") + name.getAsString();
+                    String internalName = className.replace('.', '/');
+                    mixins++;
+
+                    File classFile = classFiles.get(internalName);
+                    if (classFile == null) {
+                        problems.add(configFile.getName() + ": mixin " + className + " was not compiled");
+                        continue;
+                    }
+
+                    List<String> targets;
+                    try (InputStream in = Files.newInputStream(classFile.toPath())) {
+                        targets = MixinAnnotationReader.readTargets(in);
+                    }
+                    if (targets == null || targets.isEmpty()) {
+                        problems.add(configFile.getName() + ": " + className + " has no @Mixin targets");
+                        continue;
+                    }
+
+                    for (String target : targets) {
+                        if (!available.contains(target)) {
+                            problems.add(configFile.getName() + ": " + className + " targets missing class " + target.replace('/', '.'));
+                        }
+                    }
+                    sideIndex.put(className, targets);
+                }
+                entry.put(side, sideIndex);
+            }
+            configs.put(configFile.getName(), entry);
+        }
+
+        if (!problems.isEmpty()) {
+            throw new GradleException("Broken mixins:\n  " + String.join("\n  ", problems));
+        }
+
+        File index = new File(getOutputDirectory().get().getAsFile(), INDEX_PATH);
+        Files.createDirectories(index.getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(index.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(Collections.singletonMap("configs", configs), writer);
+        }
+
+        getLogger().lifecycle("Orchestrator: Verified " + mixins + " mixins in " + configs.size() + " configs in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void addClasses(File entry, Set<String> classes) throws IOException {
+        if (entry.isDirectory()) {
+            try (Stream<Path> walk = Files.walk(entry.toPath())) {
+                walk.filter(path -> path.toString().endsWith(".class")).forEach(path -> {
+                    String relative = entry.toPath().relativize(path).toString().replace(File.separatorChar, '/');
+                    classes.add(relative.substring(0, relative.length() - ".class".length()));
+                });
+            }
+        } else if (entry.isFile() && entry.getName().endsWith(".jar")) {
+            try (ZipFile zip = new ZipFile(entry)) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(".class")) classes.add(name.substring(0, name.length() - ".class".length()));
+                }
+            }
+        }
+    }
+
+    private static List<File> sorted(Set<File> files) {
+        List<File> list = new ArrayList<>(files);
+        list.sort(Comparator.comparing(File::getName));
+        return list;
+    }
+}
@@ -1,65 +1,146 @@
 package com.chaotic_loom.warp;
 
+import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.AbstractArchiveTask;
+import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.language.jvm.tasks.ProcessResources;
 
+import javax.inject.Inject;
 import java.io.File;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.lang.reflect.Method;
 import java.util.*;
 
 public class WarpPlugin implements Plugin<Settings> {
     private static final Logger LOGGER = Logging.getLogger(WarpPlugin.class);
-    private static final String LOOM_DEPENDENCY = "net.fabricmc:fabric-loom:1.9-SNAPSHOT";
+    private static final String COMMON_CLASSES = "commonClasses";
+    private static final String COMMON_RESOURCES = "commonResources";
+    private static final String RELEASE_TASK = "warpRelease";
+    private static final Set<String> AGGREGATE_TASKS = new HashSet<>(Arrays.asList(RELEASE_TASK, "build", "assemble"));
+    // Only Fabric modules are configured, so only Fabric metadata is expanded
+    private static final List<String> METADATA_FILES = Arrays.asList("fabric.mod.json", "*.mixins.json");
+
+    private final BuildEventsListenerRegistry listenerRegistry;
+    private final ProviderFactory providers;
+    private final ObjectFactory objects;
+
+    private Provider<LoomLoaderService> loomLoader;
+    private Provider<WarpProfiler> profiler;
+    private Provider<SharedLoomCache> sharedLoomCache;
+    private WarpConfig config;
+    private Set<String> requestedModules;
+    private final Map<String, WarpConfig> matrix = new HashMap<>();
+
+    @Inject
+    public WarpPlugin(BuildEventsListenerRegistry listenerRegistry, ProviderFactory providers, ObjectFactory objects) {
+        this.listenerRegistry = listenerRegistry;
+        this.providers = providers;
+        this.objects = objects;
+    }
 
     @Override
     public void apply(Settings settings) {
         configurePluginResolution(settings);
 
+        loomLoader = settings.getGradle().getSharedServices()
+                .registerIfAbsent(LoomLoaderService.NAME, LoomLoaderService.class, spec -> {});
+        profiler = settings.getGradle().getSharedServices()
+                .registerIfAbsent(WarpProfiler.NAME, WarpProfiler.class, spec -> {});
+        listenerRegistry.onTaskCompletion(profiler);
+
         WarpExtension extension = settings.getExtensions().create("warp", WarpExtension.class);
 
         settings.getGradle().settingsEvaluated(s -> {
             extension.applyDefaults();
+            config = WarpConfig.from(extension, readLock(s));
+            config.getStaleLockEntries().forEach((name, locked) -> LOGGER.warn("Orchestrator: warp.lock pins '" + name
+                    + "' for " + locked + ", which is no longer configured. Run warpLock to refresh it."));
 
-            String mc = extension.getMinecraftVersion().getOrElse("");
-            if (mc.isEmpty()) return;
+            if (!config.hasMinecraftVersion()) return;
 
-            MinecraftVersion current = new MinecraftVersion(mc);
-            Map<String, String> tokens = createTokens(extension);
+            if (config.isOffline()) useMirrorForPlugins(s, config);
+            if (config.isSharedCache()) registerSharedCache(s, config);
+
+            WarpMemo memo = WarpMemo.of(config);
+            Map<String, String> tokens = memo.getTokens();
             boolean hasConfig = tokens != null;
 
             s.include("common");
-            if (hasConfig) ModuleGenerator.generate(s.getRootDir(), "common", tokens);
+            boolean incremental = config.isIncrementalScaffolding();
+            if (hasConfig) profile("generate", "common", () -> scaffold(s, "common", tokens, incremental));
 
-            boolean enableFabric = extension.getFabricVersion().isPresent();
-            boolean enableForge = extension.getForgeVersion().isPresent();
-            boolean enableNeoForge = extension.getNeoForgeVersion().isPresent() && current.compareTo(new MinecraftVersion("1.20.1")) >= 0;
+            boolean enableFabric = memo.isFabricEnabled();
+            boolean enableForge = memo.isForgeEnabled();
+            boolean enableNeoForge = memo.isNeoForgeEnabled();
 
-            ModuleGenerator.manageModule(settings, "fabric", enableFabric, hasConfig, tokens);
-            ModuleGenerator.manageModule(settings, "forge", enableForge, hasConfig, tokens);
-            ModuleGenerator.manageModule(settings, "neoforge", enableNeoForge, hasConfig, tokens);
+            profile("generate", "fabric", () -> {
+                if (ModuleGenerator.manageModule(s, "fabric", enableFabric) && hasConfig) scaffold(s, "fabric", tokens, incremental);
+            });
+            profile("generate", "forge", () -> {
+                if (ModuleGenerator.manageModule(s, "forge", enableForge) && hasConfig) scaffold(s, "forge", tokens, incremental);
+            });
+            profile("generate", "neoforge", () -> {
+                if (ModuleGenerator.manageModule(s, "neoforge", enableNeoForge) && hasConfig) scaffold(s, "neoforge", tokens, incremental);
+            });
+
+            for (Map.Entry<String, WarpConfig> entry : memo.getVariants().entrySet()) {
+                String version = entry.getKey();
+                WarpConfig variant = entry.getValue();
+                includeVariant(s, "common", version, variant);
+                if (enableFabric && variant.getFabricVersion() != null) includeVariant(s, "fabric", version, variant);
+            }
+
+            if (config.isLazyLoaders()) requestedModules = findRequestedModules(s);
         });
 
         settings.getGradle().beforeProject(project -> {
-            if (project.getName().equals("common")) {
-                configureCommon(project, extension);
+            if (project == project.getRootProject()) {
+                project.getExtensions().add("warp", extension);
+                registerProfileReport(project);
+                if (config != null && config.hasMinecraftVersion()) {
+                    // The root project resolves nothing else, so it always talks to the upstream repositories
+                    addUpstreamRepositories(project.getRepositories());
+                    registerPrefetch(project, config);
+                    registerLock(project, config);
+                    project.getTasks().register(RELEASE_TASK, WarpReleaseTask.class);
+                }
+                return;
             }
-            if (project.getName().equals("fabric")) {
-                configureFabricModule(project, extension);
+            if (!isWarpModule(project.getName())) return;
+
+            project.getPluginManager().apply("java");
+            if (config == null || !config.hasMinecraftVersion()) return;
+
+            String module = moduleOf(project.getName());
+            WarpConfig moduleConfig = matrix.getOrDefault(project.getName(), config);
+            if (moduleConfig != config) shareSources(project, module);
+
+            if (requestedModules != null && !requestedModules.contains(project.getName())) {
+                LOGGER.info("Orchestrator: Deferring setup of '" + project.getName() + "', none of its tasks were requested.");
+                return;
             }
-        });
 
-        settings.getGradle().projectsLoaded(gradle -> {
-            Project root = gradle.getRootProject();
-            root.getExtensions().add("warp", extension);
-            configureRootProject(root, extension);
+            if (module.equals("common")) {
+                configureCommon(project, moduleConfig);
+            }
+            if (module.equals("fabric")) {
+                configureFabricModule(project, moduleConfig);
+            }
         });
     }
 
@@ -74,109 +155,261 @@ public class WarpPlugin implements Plugin<Settings> {
         });
     }
 
-    // --- SHARED LOOM INJECTION LOGIC ---
-    private void injectLoom(Project project) {
-        System.out.println("Orchestrator: Injecting Fabric Loom into " + project.getName() + "...");
+    private void useMirrorForPlugins(Settings settings, WarpConfig config) {
+        RepositoryHandler repositories = settings.getPluginManagement().getRepositories();
+        repositories.removeIf(repo -> repo.getName().equals("Fabric") || repo.getName().equals("Parchment"));
+        addMirrorRepository(repositories, config.getMirrorDirectory(settings.getRootDir()));
+    }
 
-        project.getRepositories().maven(repo -> repo.setUrl("https://maven.fabricmc.net/"));
-        project.getRepositories().maven(repo -> repo.setUrl("https://maven.parchmentmc.org"));
-        project.getRepositories().mavenCentral();
+    private void addUpstreamRepositories(RepositoryHandler repositories) {
+        repositories.maven(repo -> repo.setUrl("https://maven.fabricmc.net/"));
+        repositories.maven(repo -> repo.setUrl("https://maven.parchmentmc.org"));
+        repositories.mavenCentral();
+    }
 
-        try {
-            Configuration config = project.getConfigurations().detachedConfiguration(
-                    project.getDependencies().create(LOOM_DEPENDENCY)
-            );
-            config.setTransitive(true);
-            Set<File> files = config.resolve();
-
-            URL[] urls = files.stream()
-                    .map(file -> {
-                        try { return file.toURI().toURL(); }
-                        catch (Exception e) { throw new RuntimeException(e); }
-                    })
-                    .toArray(URL[]::new);
-
-            ClassLoader parentLoader = WarpPlugin.class.getClassLoader();
-            Class<?> pluginClass = null;
-
-            try {
-                if (parentLoader instanceof URLClassLoader) {
-                    Method method = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
-                    method.setAccessible(true);
-                    for (URL url : urls) method.invoke(parentLoader, url);
-                    pluginClass = parentLoader.loadClass("net.fabricmc.loom.bootstrap.LoomGradlePluginBootstrap");
+    private void addMirrorRepository(RepositoryHandler repositories, File mirrorDir) {
+        repositories.maven(repo -> {
+            repo.setName("WarpMirror");
+            repo.setUrl(new ArtifactMirror(mirrorDir).getMavenDir());
+            repo.metadataSources(sources -> {
+                sources.mavenPom();
+                sources.artifact();
+            });
+        });
+    }
+
+    private void registerSharedCache(Settings settings, WarpConfig config) {
+        File cacheDir = new File(settings.getGradle().getGradleUserHomeDir(), "caches/warp/loom");
+        sharedLoomCache = settings.getGradle().getSharedServices()
+                .registerIfAbsent(SharedLoomCache.NAME, SharedLoomCache.class, spec -> {
+                    spec.getParameters().getCacheDirectory().set(cacheDir);
+                    spec.getParameters().getMaxSizeBytes().set(config.getSharedCacheSizeMb() * 1024L * 1024L);
+                });
+        listenerRegistry.onTaskCompletion(sharedLoomCache);
+    }
+
+    private void registerProfileReport(Project root) {
+        root.getTasks().register("warpProfile", WarpProfileTask.class, task -> {
+            task.getProfiler().set(profiler);
+            task.usesService(profiler);
+            task.getReportDirectory().set(root.getLayout().getBuildDirectory().dir("reports/warp"));
+        });
+    }
+
+    private void scaffold(Settings settings, String module, Map<String, String> tokens, boolean incremental) {
+        providers.of(ScaffoldSource.class, spec -> {
+            spec.getParameters().getRootDirectory().set(settings.getRootDir());
+            spec.getParameters().getModuleName().set(module);
+            spec.getParameters().getTokens().set(tokens);
+            spec.getParameters().getIncremental().set(incremental);
+        }).get();
+    }
+
+    private void profile(String phase, String module, Runnable action) {
+        profiler.get().measure(phase, module, action);
+    }
+
+    /**
+     * Reads {@code warp.lock} through a provider so the configuration cache tracks it as an input.
+     */
+    private WarpLock readLock(Settings settings) {
+        File file = new File(settings.getRootDir(), WarpLock.FILE_NAME);
+        String json = providers.fileContents(objects.fileProperty().fileValue(file)).getAsText().getOrNull();
+        return json != null ? WarpLock.parse(json) : null;
+    }
+
+    private void registerLock(Project root, WarpConfig config) {
+        root.getTasks().register("warpLock", WarpLockTask.class, task -> {
+            task.getArtifacts().putAll(config.getRequestedArtifacts());
+            task.getLockFile().set(new File(root.getRootDir(), WarpLock.FILE_NAME));
+        });
+    }
+
+    private void registerPrefetch(Project root, WarpConfig config) {
+        root.getTasks().register("warpPrefetch", WarpPrefetchTask.class, task -> {
+            task.getDependencies().addAll(config.getLoomDependency(), config.getParchmentDependency(), "com.google.code.findbugs:jsr305:3.0.2");
+            if (config.getFabricLoaderVersion() != null) {
+                task.getDependencies().add("net.fabricmc:fabric-loader:" + config.getFabricLoaderVersion());
+            }
+            for (WarpConfig variant : new HashSet<>(matrix.values())) {
+                task.getDependencies().add(variant.getParchmentDependency());
+                if (variant.getFabricLoaderVersion() != null) {
+                    task.getDependencies().add("net.fabricmc:fabric-loader:" + variant.getFabricLoaderVersion());
                 }
-            } catch (Throwable t) {
-                // Fallback handled below
             }
+            task.getMirrorDirectory().set(config.getMirrorDirectory(root.getRootDir()));
+        });
+    }
 
-            if (pluginClass == null) {
-                URLClassLoader loader = new URLClassLoader(urls, parentLoader);
-                pluginClass = loader.loadClass("net.fabricmc.loom.bootstrap.LoomGradlePluginBootstrap");
-            }
+    // --- SHARED LOOM INJECTION LOGIC ---
+    private void injectLoom(Project project, WarpConfig config) {
+        LOGGER.lifecycle("Orchestrator: Injecting Fabric Loom into " + project.getName() + "...");
 
-            project.getPluginManager().apply(pluginClass);
+        if (config.isOffline()) {
+            addMirrorRepository(project.getRepositories(), config.getMirrorDirectory(project.getRootDir()));
+        } else {
+            addUpstreamRepositories(project.getRepositories());
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Orchestrator failed to load Fabric Loom for " + project.getName(), e);
+        if (sharedLoomCache != null) {
+            String key = SharedLoomCache.key(config.getMinecraftVersion(),
+                    Arrays.asList("official", config.getParchmentDependency()), config.getLoomDependency());
+            sharedLoomCache.get().attach(key, config.getMinecraftVersion(), new File(project.getRootDir(), ".gradle/loom-cache"));
         }
+
+        profile("injectLoom", project.getName(), () -> {
+            Class<?> pluginClass = loomLoader.get().getBootstrap(project, config.getLoomDependency(), config.getLoomSha256());
+            project.getPluginManager().apply(pluginClass);
+        });
     }
 
     // --- MODULE CONFIGURATIONS ---
 
-    private void configureCommon(Project project, WarpExtension extension) {
-        injectLoom(project);
+    private void configureCommon(Project project, WarpConfig config) {
+        injectLoom(project, config);
 
-        project.getDependencies().add("minecraft", "com.mojang:minecraft:" + extension.getMinecraftVersion().get());
+        project.getDependencies().add("minecraft", "com.mojang:minecraft:" + config.getMinecraftVersion());
 
-        applyParchmentMappings(project, extension);
+        profile("applyParchmentMappings", project.getName(), () -> applyParchmentMappings(project, config));
 
         project.getDependencies().add("implementation", "com.google.code.findbugs:jsr305:3.0.2");
 
-        System.out.println("Orchestrator: Configured 'common' with Minecraft & Parchment.");
-    }
+        exposeCommonOutput(project);
 
-    private void configureFabricModule(Project project, WarpExtension extension) {
-        project.getLogger().lifecycle("Orchestrator: Injecting Fabric Loom into " + project.getName() + "...");
+        LOGGER.lifecycle("Orchestrator: Configured '" + project.getName() + "' with Minecraft & Parchment.");
+    }
 
+    private void configureFabricModule(Project project, WarpConfig config) {
         // 1. Apply Fabric Loom
-        injectLoom(project);
+        injectLoom(project, config);
 
         // 2. Add Minecraft Dependency
-        project.getDependencies().add("minecraft", "com.mojang:minecraft:" + extension.getMinecraftVersion().get());
+        project.getDependencies().add("minecraft", "com.mojang:minecraft:" + config.getMinecraftVersion());
 
         // 3. Apply Mappings (Mojang + Parchment)
-        applyParchmentMappings(project, extension);
+        profile("applyParchmentMappings", project.getName(), () -> applyParchmentMappings(project, config));
 
         // 4. Add Fabric Loader
-        project.getDependencies().add("modImplementation", "net.fabricmc:fabric-loader:" + extension.getFabricLoaderVersion().get());
+        project.getDependencies().add("modImplementation", "net.fabricmc:fabric-loader:" + config.getFabricLoaderVersion());
 
-        // 5. Depend on Common Project
-        Project common = project.getRootProject().findProject(":common");
+        // 5. Depend on Common Project (of the same Minecraft version)
+        String commonPath = ":" + commonFor(project.getName());
+        Project common = project.getRootProject().findProject(commonPath);
         if (common != null) {
             Map<String, String> depConfig = new HashMap<>();
-            depConfig.put("path", ":common");
+            depConfig.put("path", commonPath);
             depConfig.put("configuration", "namedElements");
 
             project.getDependencies().add("implementation", project.getDependencies().project(depConfig));
+            includeCommonOutput(project, commonPath);
         }
 
         // 6. Configure Resource Processing (RE-ADDED THIS LINE)
-        configureResourceProcessing(project, extension);
+        profile("configureResourceProcessing", project.getName(), () -> configureResourceProcessing(project, config));
+
+        // 7. Verify Mixins and Package Their Index
+        registerMixinIndex(project);
+
+        // 8. Share Class Data Across Dev Runs
+        if (config.isAppCds()) configureAppCds(project);
+
+        // 9. Release Jar
+        registerReleaseJar(project, config);
     }
 
-    // --- HELPER METHODS ---
+    private void registerReleaseJar(Project project, WarpConfig config) {
+        String input = project.getTasks().getNames().contains("remapJar") ? "remapJar" : JavaPlugin.JAR_TASK_NAME;
+        TaskProvider<AbstractArchiveTask> source = project.getTasks().named(input, AbstractArchiveTask.class);
 
-    private void applyParchmentMappings(Project project, WarpExtension extension) {
-        String mcVersion = extension.getMinecraftVersion().get();
-        String parchmentRaw = extension.getParchmentVersion().getOrElse("2023.09.03");
+        TaskProvider<WarpReleaseJarTask> release = project.getTasks().register("warpReleaseJar", WarpReleaseJarTask.class, task -> {
+            task.getInputJar().set(source.flatMap(AbstractArchiveTask::getArchiveFile));
+            task.getCompressionLevel().set(config.getReleaseCompressionLevel());
+            task.getOutputJar().set(project.getLayout().getBuildDirectory()
+                    .file(source.flatMap(AbstractArchiveTask::getArchiveFileName).map(name -> "warp/release/" + name)));
+        });
 
-        // Handle "1.20.1:2023.09.03" -> "2023.09.03"
-        String parchmentDate = parchmentRaw.contains(":")
-                ? parchmentRaw.substring(parchmentRaw.lastIndexOf(":") + 1)
-                : parchmentRaw;
+        project.getRootProject().getTasks().named(RELEASE_TASK, WarpReleaseTask.class).configure(task -> {
+            task.dependsOn(release);
+            task.getReleaseProjects().add(project.getPath());
+        });
+    }
+
+    private void configureAppCds(Project project) {
+        File archiveDir = project.getLayout().getBuildDirectory().dir("warp/cds").get().getAsFile();
+        project.getTasks().withType(JavaExec.class)
+                .matching(task -> task.getName().equals("runServer") || task.getName().equals("runClient"))
+                .configureEach(task -> AppCdsArguments.configure(task, archiveDir));
+    }
+
+    private void registerMixinIndex(Project project) {
+        SourceSet main = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        Configuration commonClasses = project.getConfigurations().findByName(COMMON_CLASSES);
 
-        String parchmentDep = "org.parchmentmc.data:parchment-" + mcVersion + ":" + parchmentDate + "@zip";
+        TaskProvider<WarpMixinIndexTask> index = project.getTasks().register("warpMixinIndex", WarpMixinIndexTask.class, task -> {
+            task.getConfigDirectories().from(project.getTasks().named("warpExpandMetadata"));
+            task.getClasses().from(main.getOutput().getClassesDirs());
+            if (commonClasses != null) task.getClasses().from(commonClasses);
+            task.getTargetClasspath().from(main.getCompileClasspath());
+            task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir("warp/mixin-index"));
+        });
+
+        project.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class, jar -> jar.from(index));
+    }
+
+    // --- COMMON OUTPUT SHARING ---
+
+    /**
+     * Publishes common's compiled classes and processed resources, so loaders package the output
+     * of common's single compilation instead of compiling its sources again.
+     */
+    private void exposeCommonOutput(Project project) {
+        SourceSet main = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+
+        Configuration classes = project.getConfigurations().create(COMMON_CLASSES, config -> {
+            config.setCanBeConsumed(true);
+            config.setCanBeResolved(false);
+        });
+        project.getArtifacts().add(classes.getName(), main.getJava().getDestinationDirectory(),
+                artifact -> artifact.builtBy(main.getCompileJavaTaskName()));
+
+        Configuration resources = project.getConfigurations().create(COMMON_RESOURCES, config -> {
+            config.setCanBeConsumed(true);
+            config.setCanBeResolved(false);
+        });
+        project.getArtifacts().add(resources.getName(), main.getOutput().getResourcesDir(),
+                artifact -> artifact.builtBy(main.getProcessResourcesTaskName()));
+    }
+
+    /**
+     * Packs common's classes into the loader jar, where the loader's own remapping picks them up,
+     * and merges common's resources ahead of the loader's metadata expansion.
+     */
+    private void includeCommonOutput(Project project, String commonPath) {
+        Configuration classes = resolvableFrom(project, commonPath, COMMON_CLASSES);
+        Configuration resources = resolvableFrom(project, commonPath, COMMON_RESOURCES);
+
+        project.getTasks().named(JavaPlugin.JAR_TASK_NAME, Jar.class, jar -> jar.from(classes));
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, ProcessResources.class,
+                task -> task.from(resources, spec -> spec.exclude(METADATA_FILES)));
+    }
+
+    private Configuration resolvableFrom(Project project, String path, String configuration) {
+        Configuration config = project.getConfigurations().create(configuration, c -> {
+            c.setCanBeConsumed(false);
+            c.setCanBeResolved(true);
+        });
+
+        Map<String, String> dep = new HashMap<>();
+        dep.put("path", path);
+        dep.put("configuration", configuration);
+        project.getDependencies().add(configuration, project.getDependencies().project(dep));
+        return config;
+    }
+
+    // --- HELPER METHODS ---
+
+    private void applyParchmentMappings(Project project, WarpConfig config) {
+        String parchmentDep = config.getParchmentDependency();
 
         try {
             Object loom = project.getExtensions().getByName("loom");
@@ -184,88 +417,123 @@ public class WarpPlugin implements Plugin<Settings> {
             // Define the Action
             Action<Object> layerAction = spec -> {
                 try {
-                    Class<?> specClass = spec.getClass();
-
                     // 1. Invoke officialMojangMappings()
-                    Method officialMethod = specClass.getMethod("officialMojangMappings");
-                    officialMethod.invoke(spec);
+                    LoomReflection.officialMojangMappings(spec);
 
                     // 2. Invoke parchment(String)
-                    Arrays.stream(specClass.getMethods())
-                            .filter(m -> m.getName().equals("parchment") && m.getParameterCount() == 1)
-                            .findFirst()
-                            .ifPresent(m -> {
-                                try { m.invoke(spec, parchmentDep); }
-                                catch (Exception e) { throw new RuntimeException(e); }
-                            });
-
-                } catch (Exception e) {
+                    LoomReflection.parchment(spec, parchmentDep);
+                } catch (Error e) {
+                    throw e;
+                } catch (Throwable e) {
                     throw new RuntimeException("Reflection failed inside loom.layered", e);
                 }
             };
 
             // Invoke loom.layered(Action)
-            Method layeredMethod = Arrays.stream(loom.getClass().getMethods())
-                    .filter(m -> m.getName().equals("layered") && m.getParameterCount() == 1 && m.getParameterTypes()[0] == Action.class)
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Could not find loom.layered(Action) method"));
-
-            Object layeredDependency = layeredMethod.invoke(loom, layerAction);
+            Object layeredDependency = LoomReflection.layered(loom, layerAction);
             project.getDependencies().add("mappings", layeredDependency);
 
-        } catch (Exception e) {
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new RuntimeException("Failed to apply Parchment mappings", e);
         }
     }
 
-    private void configureResourceProcessing(Project project, WarpExtension extension) {
-        Map<String, Object> replacements = new HashMap<>();
+    private void configureResourceProcessing(Project project, WarpConfig config) {
+        Map<String, String> replacements = WarpMemo.of(config).getReplacements();
+
+        SourceSet main = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+        Configuration commonResources = project.getConfigurations().findByName(COMMON_RESOURCES);
 
-        replacements.put("mod_id", extension.getModId().get());
-        replacements.put("mod_name", extension.getModName().getOrElse("Warp Mod"));
-        replacements.put("version", extension.getModVersion().getOrElse("1.0.0"));
-        replacements.put("group", extension.getModGroup().get());
-        replacements.put("java_version", "17");
+        TaskProvider<WarpExpandMetadataTask> expand = project.getTasks().register("warpExpandMetadata", WarpExpandMetadataTask.class, task -> {
+            task.getSourceDirectories().from(main.getResources().getSourceDirectories());
+            if (commonResources != null) task.getSourceDirectories().from(commonResources);
+            task.getIncludes().set(METADATA_FILES);
+            task.getReplacements().set(replacements);
+            task.getMinifyJson().set(config.isMinifyMetadata());
+            task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir("warp/metadata"));
+        });
 
-        replacements.put("description", extension.getDescription().getOrElse(""));
+        // The expanded copies replace the raw files from every source
+        main.getResources().exclude(METADATA_FILES);
+        project.getTasks().named(JavaPlugin.PROCESS_RESOURCES_TASK_NAME, ProcessResources.class, task -> task.from(expand));
+    }
 
-        String author = extension.getModAuthor().getOrElse("");
-        replacements.put("author", author);
-        replacements.put("mod_author", author);
+    /**
+     * Warp modules the requested tasks can reach, or {@code null} when that can't be told from the
+     * command line (no tasks, unqualified task names, running from a subdirectory, abbreviations).
+     * Loader modules pull in {@code common} through their project dependency.
+     */
+    private Set<String> findRequestedModules(Settings settings) {
+        StartParameter start = settings.getStartParameter();
+        if (start.getTaskNames().isEmpty() || !settings.getRootDir().equals(start.getCurrentDir())) return null;
+
+        Set<String> modules = new HashSet<>();
+        for (String name : start.getTaskNames()) {
+            if (name.startsWith("-")) continue;
+
+            // Unqualified names run in every project
+            if (!name.startsWith(":")) return null;
+
+            String[] path = name.substring(1).split(":");
+            if (path.length < 2) {
+                if (AGGREGATE_TASKS.contains(path[0])) return null; // Root task that builds every loader
+                continue;
+            }
 
-        replacements.put("license", extension.getLicense().getOrElse(""));
+            if (!isWarpModule(path[0])) {
+                if (settings.findProject(":" + path[0]) == null) return null; // Abbreviated project name
+                continue;
+            }
+            modules.add(path[0]);
+        }
 
-        replacements.put("minecraft_version", extension.getMinecraftVersion().get());
-        replacements.put("fabric_loader_version", extension.getFabricLoaderVersion().getOrElse("0.16.9"));
+        for (String module : new ArrayList<>(modules)) modules.add(commonFor(module));
+        return modules;
+    }
 
-        project.getTasks().named("processResources", ProcessResources.class, task -> {
-            task.getInputs().properties(replacements);
-            task.filesMatching(Arrays.asList("fabric.mod.json", "*.mixins.json"), file -> {
-                file.expand(replacements);
-            });
-        });
+    private boolean isWarpModule(String name) {
+        String module = moduleOf(name);
+        return module.equals("common") || module.equals("fabric") || module.equals("forge") || module.equals("neoforge");
     }
 
-    private Map<String, String> createTokens(WarpExtension ext) {
-        String group = ext.getModGroup().getOrNull();
-        String modId = ext.getModId().getOrNull();
-        if (group == null || modId == null) return null;
-        Map<String, String> tokens = new HashMap<>();
-        tokens.put("MOD_ID", modId);
-        tokens.put("GROUP", group);
-        tokens.put("PACKAGE", group + "." + modId);
-        return tokens;
+    // --- VERSION MATRIX ---
+
+    /**
+     * Adds {@code <module>-<version>}, a build of {@code module}'s sources for another Minecraft
+     * version. Its project directory only holds build output, so variants never need scaffolding.
+     */
+    private void includeVariant(Settings settings, String module, String version, WarpConfig variant) {
+        String name = module + "-" + version;
+        File projectDir = new File(settings.getRootDir(), "build/warp-matrix/" + version + "/" + module);
+        projectDir.mkdirs();
+
+        settings.include(name);
+        settings.project(":" + name).setProjectDir(projectDir);
+        matrix.put(name, variant);
     }
 
-    private void configureRootProject(Project rootProject, WarpExtension extension) {
-        rootProject.subprojects(sub -> {
-            if (isWarpModule(sub.getName())) {
-                sub.getPluginManager().apply("java");
-            }
+    private void shareSources(Project project, String module) {
+        File sources = new File(project.getRootDir(), module + "/src/main");
+        project.getExtensions().getByType(SourceSetContainer.class).named(SourceSet.MAIN_SOURCE_SET_NAME, main -> {
+            main.getJava().setSrcDirs(Collections.singletonList(new File(sources, "java")));
+            main.getResources().setSrcDirs(Collections.singletonList(new File(sources, "resources")));
         });
     }
 
-    private boolean isWarpModule(String name) {
-        return name.equals("common") || name.equals("fabric") || name.equals("forge") || name.equals("neoforge");
+    /**
+     * The module a project builds: {@code fabric-1.21.1} is a {@code fabric} variant.
+     */
+    private String moduleOf(String name) {
+        int dash = name.indexOf('-');
+        return dash > 0 && matrix.containsKey(name) ? name.substring(0, dash) : name;
+    }
+
+    /**
+     * The common project built for the same Minecraft version as {@code name}.
+     */
+    private String commonFor(String name) {
+        return "common" + name.substring(moduleOf(name).length());
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.query.ArtifactResolutionQuery;
+import org.gradle.api.artifacts.result.ArtifactResult;
+import org.gradle.api.artifacts.result.ComponentArtifactsResult;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.maven.MavenModule;
+import org.gradle.maven.MavenPomArtifact;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.inject.Inject;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.util.*;
+
+/**
+ * Resolves everything Warp needs from the upstream repositories and stores it in the
+ * {@link ArtifactMirror}, together with the POMs required to resolve it again offline.
+ */
+public abstract class WarpPrefetchTask extends DefaultTask {
+    @Input
+    public abstract ListProperty<String> getDependencies();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getMirrorDirectory();
+
+    @Inject
+    protected abstract DependencyHandler getDependencyHandler();
+
+    @Inject
+    protected abstract ConfigurationContainer getConfigurationContainer();
+
+    public WarpPrefetchTask() {
+        setGroup("warp");
+        setDescription("Downloads Loom, Parchment and loader artifacts into the Warp offline mirror.");
+        notCompatibleWithConfigurationCache("Resolves dependency graphs while executing");
+    }
+
+    @TaskAction
+    public void prefetch() {
+        ArtifactMirror mirror = new ArtifactMirror(getMirrorDirectory().get().getAsFile());
+        DependencyHandler dependencies = getDependencyHandler();
+
+        Dependency[] requested = getDependencies().get().stream()
+                .map(dependencies::create)
+                .toArray(Dependency[]::new);
+
+        Configuration config = getConfigurationContainer().detachedConfiguration(requested);
+        config.setTransitive(true);
+
+        List<MirrorEntry> entries = new ArrayList<>();
+        Set<ModuleComponentIdentifier> components = new LinkedHashSet<>();
+
+        for (ResolvedArtifactResult artifact : config.getIncoming().getArtifacts().getArtifacts()) {
+            ComponentIdentifier id = artifact.getId().getComponentIdentifier();
+            if (!(id instanceof ModuleComponentIdentifier)) continue;
+
+            ModuleComponentIdentifier module = (ModuleComponentIdentifier) id;
+            components.add(module);
+            entries.add(new MirrorEntry(module, artifact.getFile(), artifactFileName(module, artifact.getFile())));
+        }
+
+        entries.addAll(resolvePoms(components));
+
+        long start = System.nanoTime();
+        entries.parallelStream().forEach(entry -> {
+            try {
+                mirror.store(entry.file, entry.id.getGroup(), entry.id.getModule(), entry.id.getVersion(), entry.fileName);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to mirror " + entry.id.getDisplayName(), e);
+            }
+        });
+
+        getLogger().lifecycle("Orchestrator: Mirrored " + entries.size() + " files into " + mirror.getMavenDir()
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Fetches the POM of every component, following parent POMs and imported BOMs so the
+     * mirror holds everything Gradle reads while resolving from it.
+     */
+    private List<MirrorEntry> resolvePoms(Set<ModuleComponentIdentifier> components) {
+        List<MirrorEntry> poms = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Set<ModuleComponentIdentifier> pending = new LinkedHashSet<>(components);
+        List<String[]> extra = new ArrayList<>();
+
+        while (!pending.isEmpty() || !extra.isEmpty()) {
+            ArtifactResolutionQuery query = getDependencyHandler().createArtifactResolutionQuery()
+                    .forComponents(new ArrayList<>(pending));
+            for (String[] gav : extra) query.forModule(gav[0], gav[1], gav[2]);
+            pending.clear();
+            extra.clear();
+
+            for (ComponentArtifactsResult component : withPoms(query).execute().getResolvedComponents()) {
+                if (!(component.getId() instanceof ModuleComponentIdentifier)) continue;
+                ModuleComponentIdentifier id = (ModuleComponentIdentifier) component.getId();
+                if (!seen.add(id.getDisplayName())) continue;
+
+                for (ArtifactResult result : component.getArtifacts(MavenPomArtifact.class)) {
+                    if (!(result instanceof ResolvedArtifactResult)) continue;
+
+                    File pom = ((ResolvedArtifactResult) result).getFile();
+                    poms.add(new MirrorEntry(id, pom, id.getModule() + "-" + id.getVersion() + ".pom"));
+
+                    for (String[] gav : referencedPoms(pom)) {
+                        if (!seen.contains(gav[0] + ":" + gav[1] + ":" + gav[2])) extra.add(gav);
+                    }
+                }
+            }
+        }
+        return poms;
+    }
+
+    @SuppressWarnings("unchecked") // Generic varargs of Class<? extends Artifact>
+    private static ArtifactResolutionQuery withPoms(ArtifactResolutionQuery query) {
+        return query.withArtifacts(MavenModule.class, MavenPomArtifact.class);
+    }
+
+    private static List<String[]> referencedPoms(File pom) {
+        List<String[]> result = new ArrayList<>();
+        try {
+            Document doc = newDocumentBuilderFactory().newDocumentBuilder().parse(pom);
+            Element project = doc.getDocumentElement();
+
+            Element parent = child(project, "parent");
+            if (parent != null) addGav(result, parent);
+
+            Element management = child(project, "dependencyManagement");
+            Element managed = management == null ? null : child(management, "dependencies");
+            if (managed != null) {
+                NodeList deps = managed.getElementsByTagName("dependency");
+                for (int i = 0; i < deps.getLength(); i++) {
+                    Element dep = (Element) deps.item(i);
+                    if ("import".equals(text(dep, "scope"))) addGav(result, dep);
+                }
+            }
+        } catch (Exception e) {
+            // Not a POM we can read; Gradle falls back to artifact-only metadata
+        }
+        return result;
+    }
+
+    /**
+     * POMs come from remote repositories, so DOCTYPEs and external entities are refused outright.
+     */
+    private static DocumentBuilderFactory newDocumentBuilderFactory() throws ParserConfigurationException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    private static void addGav(List<String[]> result, Element element) {
+        String group = text(element, "groupId");
+        String artifact = text(element, "artifactId");
+        String version = text(element, "version");
+        if (group == null || artifact == null || version == null || version.contains("${")) return;
+        result.add(new String[]{group, artifact, version});
+    }
+
+    private static Element child(Element parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && name.equals(node.getNodeName())) return (Element) node;
+        }
+        return null;
+    }
+
+    private static String text(Element parent, String name) {
+        Element element = child(parent, name);
+        return element == null ? null : element.getTextContent().trim();
+    }
+
+    /**
+     * Maven layout file name for a resolved artifact, keeping its classifier and extension.
+     * A moving {@code -SNAPSHOT} is stored under its plain name, whichever build Gradle cached; a locked
+     * snapshot keeps its timestamped name, in the {@code -SNAPSHOT} directory (see {@link ArtifactMirror}).
+     */
+    private static String artifactFileName(ModuleComponentIdentifier id, File file) {
+        String name = file.getName();
+        String base = id.getModule() + "-" + id.getVersion();
+        if (name.startsWith(base)) return name;
+
+        int dot = name.lastIndexOf('.');
+        return base + (dot >= 0 ? name.substring(dot) : "");
+    }
+
+    private static class MirrorEntry {
+        private final ModuleComponentIdentifier id;
+        private final File file;
+        private final String fileName;
+
+        MirrorEntry(ModuleComponentIdentifier id, File file, String fileName) {
+            this.id = id;
+            this.file = file;
+            this.fileName = fileName;
+        }
+    }
+}
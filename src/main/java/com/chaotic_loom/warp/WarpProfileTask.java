@@ -0,0 +1,31 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Asks the {@link WarpProfiler} to write its JSON and HTML report once the build finishes,
+ * so the report also covers every task that runs after this one.
+ */
+public abstract class WarpProfileTask extends DefaultTask {
+    @Internal
+    public abstract Property<WarpProfiler> getProfiler();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getReportDirectory();
+
+    public WarpProfileTask() {
+        setGroup("warp");
+        setDescription("Writes a report of Warp's configuration phases and task timings.");
+        getOutputs().upToDateWhen(task -> false);
+    }
+
+    @TaskAction
+    public void report() {
+        getProfiler().get().requestReport(getReportDirectory().get().getAsFile());
+    }
+}
@@ -0,0 +1,170 @@
+package com.chaotic_loom.warp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSkippedResult;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Build-scoped recorder of where Warp spends its configuration time. Each phase is stored
+ * with its wall time and the bytes allocated by the configuring thread, and task completion
+ * events are collected alongside. The report is written when the build finishes, once a
+ * {@code warpProfile} task asked for it.
+ */
+public abstract class WarpProfiler implements BuildService<BuildServiceParameters.None>, OperationCompletionListener, AutoCloseable {
+    public static final String NAME = "warpProfiler";
+
+    private static final Logger LOGGER = Logging.getLogger(WarpProfiler.class);
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final List<Phase> phases = new ArrayList<>();
+    private final List<TaskTiming> tasks = new ArrayList<>();
+    private File reportDir;
+
+    public void measure(String phase, String module, Runnable action) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            long wall = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+            synchronized (this) {
+                phases.add(new Phase(phase, module, wall / 1_000, allocated));
+            }
+        }
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        if (!(event instanceof TaskFinishEvent)) return;
+
+        TaskFinishEvent taskEvent = (TaskFinishEvent) event;
+        String outcome;
+        if (taskEvent.getResult() instanceof TaskSkippedResult) outcome = "SKIPPED";
+        else if (taskEvent.getResult() instanceof TaskFailureResult) outcome = "FAILED";
+        else if (taskEvent.getResult() instanceof TaskSuccessResult && ((TaskSuccessResult) taskEvent.getResult()).isFromCache()) outcome = "FROM-CACHE";
+        else if (taskEvent.getResult() instanceof TaskSuccessResult && ((TaskSuccessResult) taskEvent.getResult()).isUpToDate()) outcome = "UP-TO-DATE";
+        else outcome = "EXECUTED";
+
+        long duration = taskEvent.getResult().getEndTime() - taskEvent.getResult().getStartTime();
+        synchronized (this) {
+            tasks.add(new TaskTiming(taskEvent.getDescriptor().getTaskPath(), duration, outcome));
+        }
+    }
+
+    public synchronized void requestReport(File reportDir) {
+        this.reportDir = reportDir;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (reportDir == null) return;
+
+        Files.createDirectories(reportDir.toPath());
+        Report report = new Report(WarpProfiler.class.getPackage().getImplementationVersion(), phases, tasks);
+
+        File json = new File(reportDir, "profile.json");
+        try (Writer writer = Files.newBufferedWriter(json.toPath(), StandardCharsets.UTF_8)) {
+            GSON.toJson(report, writer);
+        }
+
+        File html = new File(reportDir, "profile.html");
+        try (Writer writer = Files.newBufferedWriter(html.toPath(), StandardCharsets.UTF_8)) {
+            writeHtml(report, writer);
+        }
+
+        LOGGER.lifecycle("Orchestrator: Profile written to " + html.getAbsolutePath());
+    }
+
+    private static void writeHtml(Report report, Writer out) throws IOException {
+        out.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Warp profile</title>\n");
+        out.write("<style>body{font-family:sans-serif}table{border-collapse:collapse}td,th{border:1px solid #ccc;padding:4px 8px;text-align:left}</style>\n");
+        out.write("</head><body>\n<h1>Warp configuration phases</h1>\n");
+        out.write("<p>Warp " + escape(String.valueOf(report.warpVersion)) + "</p>\n");
+        out.write("<table><tr><th>Phase</th><th>Module</th><th>Wall (ms)</th><th>Allocated (KiB)</th></tr>\n");
+        for (Phase phase : report.phases) {
+            out.write("<tr><td>" + escape(phase.phase) + "</td><td>" + escape(phase.module) + "</td><td>"
+                    + String.format(Locale.ROOT, "%.2f", phase.wallMicros / 1000.0) + "</td><td>"
+                    + (phase.allocatedBytes < 0 ? "n/a" : String.valueOf(phase.allocatedBytes / 1024)) + "</td></tr>\n");
+        }
+        out.write("</table>\n<h1>Tasks</h1>\n");
+        out.write("<table><tr><th>Task</th><th>Duration (ms)</th><th>Outcome</th></tr>\n");
+        for (TaskTiming task : report.tasks) {
+            out.write("<tr><td>" + escape(task.path) + "</td><td>" + task.durationMillis + "</td><td>" + task.outcome + "</td></tr>\n");
+        }
+        out.write("</table>\n</body></html>\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static class Report {
+        private final String warpVersion;
+        private final List<Phase> phases;
+        private final List<TaskTiming> tasks;
+
+        Report(String warpVersion, List<Phase> phases, List<TaskTiming> tasks) {
+            this.warpVersion = warpVersion;
+            this.phases = phases;
+            this.tasks = tasks;
+        }
+    }
+
+    private static class Phase {
+        private final String phase;
+        private final String module;
+        private final long wallMicros;
+        private final long allocatedBytes;
+
+        Phase(String phase, String module, long wallMicros, long allocatedBytes) {
+            this.phase = phase;
+            this.module = module;
+            this.wallMicros = wallMicros;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private static class TaskTiming {
+        private final String path;
+        private final long durationMillis;
+        private final String outcome;
+
+        TaskTiming(String path, long durationMillis, String outcome) {
+            this.path = path;
+            this.durationMillis = durationMillis;
+            this.outcome = outcome;
+        }
+    }
+}
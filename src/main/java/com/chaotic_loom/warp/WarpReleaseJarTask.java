@@ -0,0 +1,65 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+
+/**
+ * Repacks a loader's jar for release on a worker: dev-only files are dropped, JSON (metadata,
+ * lang files, models, ...) is minified, and entries are written in a fixed order with fixed
+ * timestamps so the same input always produces the same bytes.
+ */
+@CacheableTask
+public abstract class WarpReleaseJarTask extends DefaultTask {
+    /**
+     * The jar to repack, normally Loom's {@code remapJar} output.
+     */
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getInputJar();
+
+    /**
+     * Ant-style patterns of entries left out of the release jar.
+     */
+    @Input
+    public abstract ListProperty<String> getExcludes();
+
+    @Input
+    public abstract Property<Boolean> getMinifyJson();
+
+    /**
+     * Deflate level from 0 (store) to 9 (smallest).
+     */
+    @Input
+    public abstract Property<Integer> getCompressionLevel();
+
+    @OutputFile
+    public abstract RegularFileProperty getOutputJar();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    public WarpReleaseJarTask() {
+        setGroup("warp");
+        setDescription("Builds the minified, reproducible release jar.");
+        getExcludes().convention(ReleaseJarWork.DEV_ONLY);
+        getMinifyJson().convention(true);
+        getCompressionLevel().convention(9);
+    }
+
+    @TaskAction
+    public void pack() {
+        getWorkerExecutor().noIsolation().submit(ReleaseJarWork.class, params -> {
+            params.getInputJar().set(getInputJar());
+            params.getOutputJar().set(getOutputJar());
+            params.getExcludes().set(getExcludes());
+            params.getMinifyJson().set(getMinifyJson());
+            params.getCompressionLevel().set(getCompressionLevel());
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Aggregates the {@code warpReleaseJar} task of every configured loader module, and fails when
+ * there is none, so an empty release never passes for a successful one.
+ */
+public abstract class WarpReleaseTask extends DefaultTask {
+    /**
+     * Paths of the projects whose release jar this task builds.
+     */
+    @Input
+    public abstract ListProperty<String> getReleaseProjects();
+
+    public WarpReleaseTask() {
+        setGroup("warp");
+        setDescription("Builds the release jars of every enabled loader.");
+    }
+
+    @TaskAction
+    public void verify() {
+        if (getReleaseProjects().get().isEmpty()) {
+            throw new GradleException("warpRelease has no release jars to build: no loader module was configured."
+                    + " Enable a loader in warp { } and check that its module is part of the build.");
+        }
+        getLogger().lifecycle("Orchestrator: Built release jars for " + String.join(", ", getReleaseProjects().get()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledTemplateTest {
+    private static String render(String source, String... keyValues) throws IOException {
+        Map<String, String> tokens = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) tokens.put(keyValues[i], keyValues[i + 1]);
+
+        StringWriter out = new StringWriter();
+        CompiledTemplate.compile(source).render(tokens, out);
+        return out.toString();
+    }
+
+    @Test
+    void replacesKnownTokens() throws IOException {
+        assertEquals("package com.example.mod;", render("package {{ GROUP }}.{{MOD_ID}};", "GROUP", "com.example", "MOD_ID", "mod"));
+    }
+
+    @Test
+    void leavesUnknownTokensAndOtherBracesAsWritten() throws IOException {
+        assertEquals("{{ MISSING }} {{ lower }} {{}} ${version}", render("{{ MISSING }} {{ lower }} {{}} ${version}"));
+        assertEquals("text {{ unclosed", render("text {{ unclosed"));
+    }
+
+    @Test
+    void ifPicksTheBranchByToken() throws IOException {
+        String source = "{{#if FLAG}}yes{{else}}no{{/if}}";
+        assertEquals("yes", render(source, "FLAG", "true"));
+        assertEquals("no", render(source, "FLAG", "false"));
+        assertEquals("no", render(source, "FLAG", ""));
+        assertEquals("no", render(source));
+        assertEquals("", render("{{#if FLAG}}yes{{/if}}"));
+    }
+
+    @Test
+    void eachRepeatsForEveryValue() throws IOException {
+        assertEquals("[a][b][c]", render("{{#each LIST}}[{{ ITEM }}]{{/each}}", "LIST", "a, b ,c"));
+        assertEquals("", render("{{#each LIST}}[{{ ITEM }}]{{/each}}"));
+        assertEquals("a:x b:x ", render("{{#each LIST}}{{#if ITEM}}{{ ITEM }}:{{ NAME }} {{/if}}{{/each}}", "LIST", "a,,b", "NAME", "x"));
+    }
+
+    @Test
+    void nestedEachRestoresTheOuterItem() throws IOException {
+        assertEquals("1(x)(y)1;2(x)(y)2;", render("{{#each A}}{{ ITEM }}{{#each B}}({{ ITEM }}){{/each}}{{ ITEM }};{{/each}}", "A", "1,2", "B", "x,y"));
+    }
+
+    @Test
+    void rejectsUnterminatedBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{#if FLAG}}never closed"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{#each LIST}}never closed"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{{#each LIST}}wrong{{/if}}"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("stray {{/if}}"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("stray {{else}}"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.chaotic_loom.warp;
+
+import com.chaotic_loom.warp.benchmark.StubWorkspaces;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a generated workspace twice with the configuration cache, against the stub Loom mirror.
+ */
+class ConfigurationCacheTest {
+    @TempDir
+    Path workDir;
+
+    @Test
+    void secondRunReusesTheConfigurationCache() throws IOException {
+        StubWorkspaces workspaces = new StubWorkspaces(
+                new File(System.getProperty("warp.test.pluginRepo")),
+                new File(System.getProperty("warp.test.stubJar")),
+                workDir.toFile()
+        );
+        File workspace = workspaces.createWorkspace("cc", workspaces.createStubMirror(), "");
+
+        GradleRunner runner = GradleRunner.create()
+                .withProjectDir(workspace)
+                .withTestKitDir(workDir.resolve("testkit").toFile())
+                .withArguments("help", "--configuration-cache", "--offline");
+
+        BuildResult first = runner.build();
+        assertTrue(first.getOutput().contains("Configuration cache entry stored"), first.getOutput());
+
+        BuildResult second = runner.build();
+        assertTrue(second.getOutput().contains("Reusing configuration cache"), second.getOutput());
+    }
+}
@@ -0,0 +1,91 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetadataExpanderTest {
+    private static final Map<String, String> VALUES = new HashMap<>();
+
+    static {
+        VALUES.put("mod_id", "examplemod");
+        VALUES.put("version", "1.0.0");
+        VALUES.put("author", "Zoë 日本 🚀");
+    }
+
+    private static String expand(String source) throws IOException {
+        StringBuilder out = new StringBuilder();
+        try (Reader reader = MetadataExpander.expand(new StringReader(source), VALUES)) {
+            char[] buffer = new char[3]; // Small on purpose, so expansions span several reads
+            for (int n = reader.read(buffer); n >= 0; n = reader.read(buffer)) out.append(buffer, 0, n);
+        }
+        return out.toString();
+    }
+
+    private static String minify(String json) throws IOException {
+        StringWriter out = new StringWriter();
+        MetadataExpander.minifyJson(new StringReader(json), out);
+        return out.toString();
+    }
+
+    @Test
+    void expandsKnownKeys() throws IOException {
+        assertEquals("{\"id\": \"examplemod\", \"version\": \"1.0.0\"}", expand("{\"id\": \"${mod_id}\", \"version\": \"${ version }\"}"));
+        assertEquals("examplemod-1.0.0", expand("${mod_id}-${version}"));
+    }
+
+    @Test
+    void leavesOtherDollarsAndBackslashesAlone() throws IOException {
+        assertEquals("$ $mod_id $$ cost: 5$", expand("$ $mod_id $$ cost: 5$"));
+        assertEquals("$examplemod", expand("$${mod_id}"));
+        assertEquals("\"a\\nb\\\\c\\\"\"", expand("\"a\\nb\\\\c\\\"\""));
+        assertEquals("trailing \\", expand("trailing \\"));
+    }
+
+    @Test
+    void backslashEscapesExpansion() throws IOException {
+        assertEquals("${mod_id} examplemod", expand("\\${mod_id} ${mod_id}"));
+        assertEquals("\\\\examplemod", expand("\\\\${mod_id}"));
+    }
+
+    @Test
+    void failsOnUnknownOrUnterminatedKeys() {
+        IOException unknown = assertThrows(IOException.class, () -> expand("\"${missing}\""));
+        assertTrue(unknown.getMessage().contains("${missing}"), unknown.getMessage());
+        assertThrows(IOException.class, () -> expand("\"${mod_id\""));
+    }
+
+    @Test
+    void keepsNonAsciiText() throws IOException {
+        assertEquals("Zoë 日本 🚀 by Zoë 日本 🚀", expand("Zoë 日本 🚀 by ${author}"));
+        assertEquals("{\"authors\":[\"Zoë 日本 🚀\"],\"name\":\"café\"}",
+                minify("{\n  \"authors\": [ \"${author}\" ],\n  \"name\": \"caf\\u00e9\"\n}".replace("${author}", VALUES.get("author"))));
+    }
+
+    @Test
+    void minifiesWithoutChangingValues() throws IOException {
+        assertEquals("{\"a\":1.0,\"b\":[true,null,\"x \\\" y\"],\"c\":{},\"html\":\"<a>&\"}",
+                minify("{ \"a\" : 1.0,\n \"b\": [ true, null, \"x \\\" y\" ],\n \"c\": { }, \"html\": \"<a>&\" }"));
+    }
+
+    @Test
+    void failsOnContentAfterTheDocument() {
+        assertThrows(IOException.class, () -> minify("{\"a\":1} {\"b\":2}"));
+        assertThrows(IOException.class, () -> minify("{\"a\":1}\n// comment"));
+        assertThrows(IOException.class, () -> minify("[1,2]]"));
+    }
+
+    @Test
+    void allowsTrailingWhitespace() throws IOException {
+        assertEquals("{\"a\":1}", minify("{ \"a\": 1 }\n\n"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinecraftVersionTest {
+    private static void assertOrdered(String... versions) {
+        for (int i = 1; i < versions.length; i++) {
+            MinecraftVersion older = MinecraftVersion.of(versions[i - 1]);
+            MinecraftVersion newer = MinecraftVersion.of(versions[i]);
+            assertTrue(older.compareTo(newer) < 0, versions[i - 1] + " should sort before " + versions[i]);
+            assertTrue(newer.compareTo(older) > 0, versions[i] + " should sort after " + versions[i - 1]);
+        }
+    }
+
+    @Test
+    void ordersReleases() {
+        assertOrdered("1.19.4", "1.20", "1.20.1", "1.20.2", "1.20.10", "1.21", "1.21.11", "25.1", "25.2", "26.1");
+    }
+
+    @Test
+    void ordersPreReleasesAndCandidatesBeforeTheirRelease() {
+        assertOrdered("1.20.6", "1.21-pre1", "1.21-pre2", "1.21-rc1", "1.21", "1.21.1-rc1", "1.21.1");
+        assertOrdered("25.4", "26.1-snapshot-1", "26.1-snapshot-2", "26.1-pre1", "26.1-rc1", "26.1");
+    }
+
+    @Test
+    void ordersWeeklySnapshotsWithTheReleaseTheyLeadTo() {
+        assertOrdered("1.20.4", "24w03a", "24w14a", "24w14b", "1.20.5-pre1", "1.20.5", "1.20.6", "24w18a", "1.21-pre1");
+        assertOrdered("1.20.1", "23w31a", "1.20.2");
+        assertOrdered("17w50a", "1.14");
+    }
+
+    @Test
+    void sortsAMixedList() {
+        List<String> expected = Arrays.asList(
+                "1.20", "1.20.1", "23w31a", "1.20.2", "23w40a", "1.20.3", "24w14a", "1.20.5-pre1",
+                "1.20.5-rc1", "1.20.5", "24w33a", "1.21.2", "25w41a", "1.21.11", "26.1-snapshot-1", "26.1");
+
+        List<MinecraftVersion> versions = new ArrayList<>();
+        for (String version : expected) versions.add(MinecraftVersion.of(version));
+        Collections.shuffle(versions, new Random(42));
+        Collections.sort(versions);
+
+        List<String> sorted = new ArrayList<>();
+        for (MinecraftVersion version : versions) sorted.add(version.toString());
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    void treatsAMissingPatchAsZero() {
+        assertEquals(MinecraftVersion.of("1.21"), MinecraftVersion.of("1.21.0"));
+        assertEquals("1.21.0", MinecraftVersion.of("1.21.0").toString());
+    }
+
+    @Test
+    void internsInstances() {
+        assertSame(MinecraftVersion.of("1.20.1"), MinecraftVersion.of(new String("1.20.1")));
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        for (String version : Arrays.asList("", "1..2", "1.2.3.4", "1.21-beta1", "1.21-pre", "24w14", "2024w14a", "1.21 ")) {
+            assertThrows(IllegalArgumentException.class, () -> MinecraftVersion.of(version), version);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Reads {@code @Mixin} targets from fixtures compiled by javac against a stand-in Mixin annotation.
+ */
+class MixinAnnotationReaderTest {
+    private static final Map<String, String> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put("org/spongepowered/asm/mixin/Mixin.java", "package org.spongepowered.asm.mixin;\n"
+                + "import java.lang.annotation.*;\n"
+                + "@Retention(RetentionPolicy.CLASS) @Target(ElementType.TYPE)\n"
+                + "public @interface Mixin {\n"
+                + "    Class<?>[] value() default {};\n"
+                + "    String[] targets() default {};\n"
+                + "    int priority() default 1000;\n"
+                + "    boolean remap() default true;\n"
+                + "}\n");
+        SOURCES.put("fixture/Marker.java", "package fixture;\n"
+                + "import java.lang.annotation.*;\n"
+                + "@Retention(RetentionPolicy.CLASS)\n"
+                + "public @interface Marker {\n"
+                + "    enum Kind { A, B }\n"
+                + "    @interface Inner { String[] names(); Class<?> type(); }\n"
+                + "    Inner inner();\n"
+                + "    Inner[] more() default {};\n"
+                + "    Kind kind() default Kind.A;\n"
+                + "}\n");
+        SOURCES.put("fixture/Entity.java", "package fixture;\npublic class Entity { public static class Inner {} }\n");
+        SOURCES.put("fixture/Player.java", "package fixture;\npublic class Player {}\n");
+        SOURCES.put("fixture/ValueMixin.java", "package fixture;\n"
+                + "@org.spongepowered.asm.mixin.Mixin({Entity.class, Entity.Inner.class})\n"
+                + "public class ValueMixin {}\n");
+        SOURCES.put("fixture/TargetsMixin.java", "package fixture;\n"
+                + "@org.spongepowered.asm.mixin.Mixin(targets = {\"net.minecraft.world.entity.Entity\", \"net.minecraft.client.Minecraft$Inner\"}, priority = 500)\n"
+                + "public class TargetsMixin {}\n");
+        SOURCES.put("fixture/MixedMixin.java", "package fixture;\n"
+                + "@org.spongepowered.asm.mixin.Mixin(value = Player.class, remap = false, targets = \"net.minecraft.server.Main\")\n"
+                + "public class MixedMixin {}\n");
+        SOURCES.put("fixture/NestedMixin.java", "package fixture;\n"
+                + "@Marker(inner = @Marker.Inner(names = {\"a\", \"b\"}, type = String.class),\n"
+                + "        more = {@Marker.Inner(names = {}, type = int.class)}, kind = Marker.Kind.B)\n"
+                + "@org.spongepowered.asm.mixin.Mixin(Entity.class)\n"
+                + "@Deprecated\n"
+                + "public class NestedMixin {}\n");
+        SOURCES.put("fixture/WideConstantsMixin.java", "package fixture;\n"
+                + "@org.spongepowered.asm.mixin.Mixin(Player.class)\n"
+                + "public class WideConstantsMixin {\n"
+                + "    static final long BIG = 1234567890123L;\n"
+                + "    static final double RATIO = 3.5;\n"
+                + "    long sum(long a, double b) { return a + (long) b + BIG + (long) RATIO + 9876543210L; }\n"
+                + "    double half() { return 0.25 * RATIO; }\n"
+                + "}\n");
+        SOURCES.put("fixture/NotAMixin.java", "package fixture;\n"
+                + "@Marker(inner = @Marker.Inner(names = \"x\", type = Entity.class))\n"
+                + "public class NotAMixin { long value = 42L; }\n");
+    }
+
+    @TempDir
+    static Path classes;
+
+    @BeforeAll
+    static void compileFixtures(@TempDir Path sources) throws IOException {
+        List<String> arguments = new ArrayList<>(Arrays.asList("-d", classes.toString()));
+        for (Map.Entry<String, String> source : SOURCES.entrySet()) {
+            Path file = sources.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            arguments.add(file.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int exit = compiler.run(null, null, errors, arguments.toArray(new String[0]));
+        assertEquals(0, exit, errors.toString());
+    }
+
+    private static List<String> targets(String className) throws IOException {
+        try (InputStream in = Files.newInputStream(classes.resolve("fixture/" + className + ".class"))) {
+            return MixinAnnotationReader.readTargets(in);
+        }
+    }
+
+    @Test
+    void readsClassTargets() throws IOException {
+        assertEquals(Arrays.asList("fixture/Entity", "fixture/Entity$Inner"), targets("ValueMixin"));
+    }
+
+    @Test
+    void readsStringTargets() throws IOException {
+        assertEquals(Arrays.asList("net/minecraft/world/entity/Entity", "net/minecraft/client/Minecraft$Inner"), targets("TargetsMixin"));
+    }
+
+    @Test
+    void readsClassAndStringTargetsTogether() throws IOException {
+        assertEquals(Arrays.asList("fixture/Player", "net/minecraft/server/Main"), targets("MixedMixin"));
+    }
+
+    @Test
+    void skipsOtherAnnotationsWithNestedValues() throws IOException {
+        assertEquals(Collections.singletonList("fixture/Entity"), targets("NestedMixin"));
+    }
+
+    @Test
+    void skipsLongAndDoubleConstantSlots() throws IOException {
+        assertEquals(Collections.singletonList("fixture/Player"), targets("WideConstantsMixin"));
+    }
+
+    @Test
+    void returnsNullWithoutMixin() throws IOException {
+        assertNull(targets("NotAMixin"));
+        assertNull(targets("Player"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Incremental scaffolding of the {@code common} module on a temporary workspace.
+ */
+class ModuleGeneratorTest {
+    private static final String ENTRY_POINT = "common/src/main/java/com/example/examplemod/CommonEntryPoint.java";
+    private static final String BUILD_SCRIPT = "common/build.gradle";
+
+    @TempDir
+    Path root;
+
+    private static Map<String, String> tokens(String modId, String pkg) {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("MOD_ID", modId);
+        tokens.put("GROUP", "com.example");
+        tokens.put("PACKAGE", pkg);
+        return tokens;
+    }
+
+    private void generate(Map<String, String> tokens) {
+        ModuleGenerator.generate(root.toFile(), "common", tokens, true);
+    }
+
+    private String read(String path) throws IOException {
+        return Files.readString(root.resolve(path));
+    }
+
+    @Test
+    void unchangedStampWritesNothing() throws IOException {
+        generate(tokens("examplemod", "com.example.examplemod"));
+
+        FileTime old = FileTime.fromMillis(1_000_000_000L);
+        Map<Path, FileTime> before = new TreeMap<>();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Files.setLastModifiedTime(file, old);
+                before.put(file, old);
+            }
+        }
+        assertTrue(before.containsKey(root.resolve(".warp/scaffold.json")));
+
+        // A file Warp never wrote would be created by a reconcile, so it shows whether one ran
+        Files.delete(root.resolve(BUILD_SCRIPT));
+        ScaffoldManifest manifest = ScaffoldManifest.load(root.toFile());
+        before.remove(root.resolve(BUILD_SCRIPT));
+
+        generate(tokens("examplemod", "com.example.examplemod"));
+
+        assertFalse(Files.exists(root.resolve(BUILD_SCRIPT)));
+        for (Map.Entry<Path, FileTime> entry : before.entrySet()) {
+            assertEquals(entry.getValue(), Files.getLastModifiedTime(entry.getKey()), entry.getKey().toString());
+        }
+        assertEquals(manifest.fingerprint("common"), ScaffoldManifest.load(root.toFile()).fingerprint("common"));
+    }
+
+    @Test
+    void tokenChangeRerendersUntouchedFiles() throws IOException {
+        generate(tokens("examplemod", "com.example.examplemod"));
+        assertTrue(read(ENTRY_POINT).contains("package com.example.examplemod;"));
+
+        generate(tokens("examplemod", "com.example.renamed"));
+
+        assertTrue(read(ENTRY_POINT).contains("package com.example.renamed;"));
+    }
+
+    @Test
+    void keepsEditedFiles() throws IOException {
+        generate(tokens("examplemod", "com.example.examplemod"));
+        Files.writeString(root.resolve(ENTRY_POINT), "// Edited by the user\n");
+
+        generate(tokens("examplemod", "com.example.renamed"));
+
+        assertEquals("// Edited by the user\n", read(ENTRY_POINT));
+    }
+
+    @Test
+    void doesNotRestoreDeletedFiles() throws IOException {
+        generate(tokens("examplemod", "com.example.examplemod"));
+        Files.delete(root.resolve(ENTRY_POINT));
+
+        generate(tokens("examplemod", "com.example.renamed"));
+
+        assertFalse(Files.exists(root.resolve(ENTRY_POINT)));
+        assertTrue(Files.exists(root.resolve(BUILD_SCRIPT)));
+    }
+
+    @Test
+    void deletedModuleIsScaffoldedAgain() throws IOException {
+        generate(tokens("examplemod", "com.example.examplemod"));
+        String original = read(ENTRY_POINT);
+        deleteRecursively(root.resolve("common").toFile());
+
+        generate(tokens("examplemod", "com.example.examplemod"));
+
+        assertEquals(original, read(ENTRY_POINT));
+        assertTrue(Files.exists(root.resolve(BUILD_SCRIPT)));
+    }
+
+    @Test
+    void leavesExistingModulesAloneWhenNotIncremental() throws IOException {
+        Files.createDirectories(root.resolve("common"));
+
+        ModuleGenerator.generate(root.toFile(), "common", tokens("examplemod", "com.example.examplemod"), false);
+
+        assertFalse(Files.exists(root.resolve(ENTRY_POINT)));
+        assertFalse(Files.exists(root.resolve(".warp/scaffold.json")));
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,172 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedLoomCacheTest {
+    private static final String MERGED = "minecraftMaven/net/minecraft/minecraft-merged/";
+
+    @TempDir
+    Path tempDir;
+
+    private Path cacheDir;
+    private Path loomCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheDir = tempDir.resolve("cache");
+        loomCache = tempDir.resolve("workspace/.gradle/loom-cache");
+    }
+
+    private SharedLoomCache service(long maxSizeBytes) {
+        ObjectFactory objects = ProjectBuilder.builder().withProjectDir(tempDir.resolve("project").toFile()).build().getObjects();
+        DirectoryProperty directory = objects.directoryProperty();
+        directory.set(cacheDir.toFile());
+        Property<Long> maxSize = objects.property(Long.class);
+        maxSize.set(maxSizeBytes);
+
+        SharedLoomCache.Params params = new SharedLoomCache.Params() {
+            @Override
+            public DirectoryProperty getCacheDirectory() {
+                return directory;
+            }
+
+            @Override
+            public Property<Long> getMaxSizeBytes() {
+                return maxSize;
+            }
+        };
+        return new SharedLoomCache() {
+            @Override
+            public Params getParameters() {
+                return params;
+            }
+        };
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static FinishEvent failedTask() {
+        Object result = Proxy.newProxyInstance(SharedLoomCacheTest.class.getClassLoader(),
+                new Class<?>[]{TaskFailureResult.class}, (proxy, method, args) -> null);
+        return (FinishEvent) Proxy.newProxyInstance(SharedLoomCacheTest.class.getClassLoader(),
+                new Class<?>[]{FinishEvent.class}, (proxy, method, args) -> method.getName().equals("getResult") ? result : null);
+    }
+
+    @Test
+    void keysFollowVersionMappingsAndLoom() {
+        String key = SharedLoomCache.key("1.20.1", Arrays.asList("official", "parchment:2023.09.03"), "net.fabricmc:fabric-loom:1.9.0");
+
+        assertTrue(key.startsWith("1.20.1-"), key);
+        assertEquals(key, SharedLoomCache.key("1.20.1", Arrays.asList("official", "parchment:2023.09.03"), "net.fabricmc:fabric-loom:1.9.0"));
+        assertNotEquals(key, SharedLoomCache.key("1.20.1", Collections.singletonList("official"), "net.fabricmc:fabric-loom:1.9.0"));
+        assertNotEquals(key, SharedLoomCache.key("1.20.1", Arrays.asList("official", "parchment:2023.09.03"), "net.fabricmc:fabric-loom:1.9.1"));
+    }
+
+    @Test
+    void seedsOnlyTheVersionsShareableFiles() throws IOException {
+        Path entry = cacheDir.resolve("1.20.1-key");
+        write(entry.resolve(MERGED + "1.20.1-loom/minecraft-merged-1.20.1.jar"), "shared");
+        write(entry.resolve(MERGED + "1.20.2-loom/minecraft-merged-1.20.2.jar"), "other version");
+        write(entry.resolve("1.20.1/launch.cfg"), "workspace paths");
+        write(loomCache.resolve("1.20.1/mappings.tiny"), "local");
+        write(entry.resolve("1.20.1/mappings.tiny"), "shared");
+
+        service(Long.MAX_VALUE).attach("1.20.1-key", "1.20.1", loomCache.toFile());
+
+        assertEquals("shared", Files.readString(loomCache.resolve(MERGED + "1.20.1-loom/minecraft-merged-1.20.1.jar")));
+        assertFalse(Files.exists(loomCache.resolve(MERGED + "1.20.2-loom/minecraft-merged-1.20.2.jar")));
+        assertFalse(Files.exists(loomCache.resolve("1.20.1/launch.cfg")));
+        assertEquals("local", Files.readString(loomCache.resolve("1.20.1/mappings.tiny")));
+    }
+
+    @Test
+    void publishesOnlyTheVersionsShareableFiles() throws IOException {
+        write(loomCache.resolve(MERGED + "1.20.1-loom/minecraft-merged-1.20.1.jar"), "merged");
+        write(loomCache.resolve(MERGED + "1.21-loom/minecraft-merged-1.21.jar"), "other version");
+        write(loomCache.resolve("1.20.1/launch.cfg"), "workspace paths");
+
+        SharedLoomCache cache = service(Long.MAX_VALUE);
+        cache.attach("1.20.1-key", "1.20.1", loomCache.toFile());
+        cache.close();
+
+        Path entry = cacheDir.resolve("1.20.1-key");
+        assertEquals("merged", Files.readString(entry.resolve(MERGED + "1.20.1-loom/minecraft-merged-1.20.1.jar")));
+        assertFalse(Files.exists(entry.resolve(MERGED + "1.21-loom/minecraft-merged-1.21.jar")));
+        assertFalse(Files.exists(entry.resolve("1.20.1/launch.cfg")));
+    }
+
+    @Test
+    void skipsPublishingAfterAFailedTask() throws IOException {
+        write(loomCache.resolve("1.20.1/client.jar"), "client");
+
+        SharedLoomCache cache = service(Long.MAX_VALUE);
+        cache.attach("1.20.1-key", "1.20.1", loomCache.toFile());
+        cache.onFinish(failedTask());
+        cache.close();
+
+        assertFalse(Files.exists(cacheDir.resolve("1.20.1-key")));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesWithTheirLocks() throws IOException {
+        write(cacheDir.resolve("oldest/1.19/client.jar"), "0123456789");
+        write(cacheDir.resolve("oldest.lock"), "");
+        write(cacheDir.resolve("older/1.20/client.jar"), "0123456789");
+        write(cacheDir.resolve("older.lock"), "");
+        write(cacheDir.resolve("recent/1.20.2/client.jar"), "0123456789");
+        write(cacheDir.resolve("recent.lock"), "");
+        Files.setLastModifiedTime(cacheDir.resolve("oldest"), FileTime.fromMillis(1_000_000L));
+        Files.setLastModifiedTime(cacheDir.resolve("older"), FileTime.fromMillis(2_000_000L));
+        Files.setLastModifiedTime(cacheDir.resolve("recent"), FileTime.fromMillis(3_000_000L));
+
+        // Published by this build, so the most recently used entry
+        write(loomCache.resolve("1.20.1/client.jar"), "0123456789");
+        SharedLoomCache cache = service(25);
+        cache.attach("1.20.1-key", "1.20.1", loomCache.toFile());
+        cache.close();
+
+        assertFalse(Files.exists(cacheDir.resolve("oldest")));
+        assertFalse(Files.exists(cacheDir.resolve("oldest.lock")));
+        assertFalse(Files.exists(cacheDir.resolve("older")));
+        assertFalse(Files.exists(cacheDir.resolve("older.lock")));
+        assertTrue(Files.exists(cacheDir.resolve("recent/1.20.2/client.jar")));
+        assertTrue(Files.exists(cacheDir.resolve("recent.lock")));
+        assertTrue(Files.exists(cacheDir.resolve("1.20.1-key/1.20.1/client.jar")));
+    }
+
+    @Test
+    void scopesFilesToTheirMinecraftVersion() {
+        assertTrue(SharedLoomCache.isForVersion(Path.of("minecraftMaven/net/minecraft/minecraft-merged/1.20.1-loom.mappings.1_20_1.layered+hash.2198/minecraft-merged-1.20.1.jar"), "1.20.1"));
+        assertTrue(SharedLoomCache.isForVersion(Path.of("1.20.1/client.jar"), "1.20.1"));
+        assertTrue(SharedLoomCache.isForVersion(Path.of("mappings/1.21.tiny"), "1.21"));
+
+        assertFalse(SharedLoomCache.isForVersion(Path.of("minecraft-merged/1.20.10-loom/minecraft-merged-1.20.10.jar"), "1.20.1"));
+        assertFalse(SharedLoomCache.isForVersion(Path.of("1.21.1/client.jar"), "1.21"));
+        assertFalse(SharedLoomCache.isForVersion(Path.of("11.20.1/client.jar"), "1.20.1"));
+        assertFalse(SharedLoomCache.isForVersion(Path.of("remapped_mods/fabric-api-0.92.0.jar"), "1.20.1"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.chaotic_loom.warp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lookups against the bundled {@code versions.json}, which catalogues 1.20.1 and 1.21.1.
+ */
+class VersionCatalogTest {
+    private static final VersionCatalog CATALOG = VersionCatalog.get();
+
+    private static String floorOf(String version) {
+        Map.Entry<MinecraftVersion, VersionCatalog.Entry> floor = CATALOG.floor(MinecraftVersion.of(version));
+        return floor == null ? null : floor.getKey().toString();
+    }
+
+    @Test
+    void findsExactEntries() {
+        VersionCatalog.Entry entry = CATALOG.exact(MinecraftVersion.of("1.20.1"));
+        assertNotNull(entry);
+        assertEquals("0.15.11", entry.getFabricLoader());
+        assertEquals("17", entry.getJavaVersion());
+
+        assertEquals("0.16.9", CATALOG.exact(MinecraftVersion.of("1.21.1")).getFabricLoader());
+        assertEquals("1.20.1", floorOf("1.20.1"));
+    }
+
+    @Test
+    void uncataloguedVersionsFallBackToTheNearestOlderEntry() {
+        assertNull(CATALOG.exact(MinecraftVersion.of("1.20.4")));
+        assertEquals("1.20.1", floorOf("1.20.4"));
+        assertEquals("1.20.1", floorOf("1.21"));
+        assertEquals("1.21.1", floorOf("1.21.4"));
+        assertEquals("1.21.1", floorOf("25.1"));
+    }
+
+    @Test
+    void versionsBelowTheOldestEntryHaveNoDefaults() {
+        assertNull(CATALOG.exact(MinecraftVersion.of("1.19.4")));
+        assertNull(floorOf("1.19.4"));
+        assertNull(floorOf("1.20"));
+        assertNull(floorOf("1.20.1-rc1"));
+    }
+
+    @Test
+    void snapshotsFallBackToTheReleaseBeforeTheirSeries() {
+        assertEquals("1.20.1", floorOf("23w31a"));
+        assertEquals("1.20.1", floorOf("24w14a"));
+        assertEquals("1.20.1", floorOf("1.21.1-rc1"));
+        assertEquals("1.21.1", floorOf("24w33a"));
+        assertNull(floorOf("23w17a"));
+    }
+}
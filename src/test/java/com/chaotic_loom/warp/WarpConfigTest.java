@@ -0,0 +1,42 @@
+package com.chaotic_loom.warp;
+
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WarpConfigTest {
+    @TempDir
+    Path projectDir;
+
+    private WarpExtension extension(String fabricLoader) {
+        WarpExtension extension = ProjectBuilder.builder().withProjectDir(projectDir.toFile()).build()
+                .getObjects().newInstance(WarpExtension.class);
+        extension.getMinecraftVersion().set("1.20.1");
+        extension.getMinecraftVersions().set(Collections.singletonList("1.21.1"));
+        if (fabricLoader != null) extension.getFabricLoaderVersion().set(fabricLoader);
+        extension.applyDefaults();
+        return extension;
+    }
+
+    @Test
+    void variantsTakeTheCatalogFabricLoaderByDefault() {
+        WarpConfig config = WarpConfig.from(extension(null));
+
+        assertEquals("0.15.11", config.getFabricLoaderVersion());
+        assertEquals("0.16.9", config.forVersion("1.21.1").getFabricLoaderVersion());
+    }
+
+    @Test
+    void variantsKeepAnExplicitFabricLoader() {
+        WarpConfig config = WarpConfig.from(extension("0.16.5"));
+
+        assertEquals("0.16.5", config.getFabricLoaderVersion());
+        assertEquals("0.16.5", config.forVersion("1.21.1").getFabricLoaderVersion());
+        assertEquals("21", config.forVersion("1.21.1").getJavaVersion());
+    }
+}
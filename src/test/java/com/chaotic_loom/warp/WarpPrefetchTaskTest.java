@@ -0,0 +1,100 @@
+package com.chaotic_loom.warp;
+
+import com.chaotic_loom.warp.benchmark.StubWorkspaces;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prefetches a locked snapshot build from a local upstream repository and resolves it again from the mirror.
+ */
+class WarpPrefetchTaskTest {
+    private static final String SNAPSHOT = "1.9-SNAPSHOT";
+    private static final String TIMESTAMPED = "1.9-20241201.103012-4";
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void lockedSnapshotResolvesOfflineFromTheMirror() throws IOException {
+        StubWorkspaces workspaces = new StubWorkspaces(
+                new File(System.getProperty("warp.test.pluginRepo")),
+                new File(System.getProperty("warp.test.stubJar")),
+                workDir.toFile()
+        );
+        File stubMirror = workspaces.createStubMirror();
+
+        Path upstream = workDir.resolve("upstream/com/example/locked/" + SNAPSHOT);
+        Files.createDirectories(upstream);
+        Files.writeString(upstream.resolve("locked-" + TIMESTAMPED + ".jar"), "locked build");
+        Files.writeString(upstream.resolve("locked-" + TIMESTAMPED + ".pom"), pom());
+
+        Path mirror = workDir.resolve("mirror");
+        Path producer = workDir.resolve("producer");
+        Files.createDirectories(producer);
+        Files.writeString(producer.resolve("settings.gradle"), "rootProject.name = 'producer'\n");
+        Files.writeString(producer.resolve("build.gradle"), buildscript(stubMirror)
+                + "repositories { maven { url = uri('" + path(workDir.resolve("upstream")) + "') } }\n"
+                + "tasks.register('prefetch', com.chaotic_loom.warp.WarpPrefetchTask) {\n"
+                + "    it.dependencies.add('com.example:locked:" + TIMESTAMPED + "')\n"
+                + "    it.mirrorDirectory = file('" + path(mirror) + "')\n"
+                + "}\n");
+
+        runner(producer, "prefetch").build();
+        assertTrue(Files.exists(mirror.resolve("maven/com/example/locked/" + SNAPSHOT + "/locked-" + TIMESTAMPED + ".jar")));
+        assertTrue(Files.exists(mirror.resolve("maven/com/example/locked/" + SNAPSHOT + "/locked-" + TIMESTAMPED + ".pom")));
+
+        Path consumer = workDir.resolve("consumer");
+        Files.createDirectories(consumer);
+        Files.writeString(consumer.resolve("settings.gradle"), "rootProject.name = 'consumer'\n");
+        Files.writeString(consumer.resolve("build.gradle"), ""
+                + "repositories { maven { url = uri('" + path(mirror.resolve("maven")) + "') } }\n"
+                + "configurations { locked }\n"
+                + "dependencies { locked 'com.example:locked:" + TIMESTAMPED + "' }\n"
+                + "tasks.register('resolveLocked') {\n"
+                + "    def files = configurations.locked\n"
+                + "    doLast { files.each { println 'Resolved ' + it.name } }\n"
+                + "}\n");
+
+        BuildResult result = runner(consumer, "resolveLocked", "--offline").build();
+        assertTrue(result.getOutput().contains("Resolved locked-" + TIMESTAMPED + ".jar"), result.getOutput());
+    }
+
+    private GradleRunner runner(Path projectDir, String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withTestKitDir(workDir.resolve("testkit").toFile())
+                .withArguments(arguments);
+    }
+
+    private static String buildscript(File stubMirror) {
+        return "buildscript {\n"
+                + "    repositories {\n"
+                + "        maven { url = uri('" + path(Path.of(System.getProperty("warp.test.pluginRepo"))) + "') }\n"
+                + "        maven { url = uri('" + path(stubMirror.toPath().resolve("maven")) + "') }\n"
+                + "    }\n"
+                + "    dependencies { classpath 'com.chaotic_loom:Warp:" + StubWorkspaces.WARP_VERSION + "' }\n"
+                + "}\n";
+    }
+
+    private static String pom() {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>com.example</groupId>\n"
+                + "  <artifactId>locked</artifactId>\n"
+                + "  <version>" + SNAPSHOT + "</version>\n"
+                + "</project>\n";
+    }
+
+    private static String path(Path path) {
+        return path.toAbsolutePath().toString().replace('\\', '/');
+    }
+}